@@ -0,0 +1,139 @@
+package CodingLabs;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * A range of an int array, viewed without copying: the array, an offset and a length.
+ * Slicing a slice gives another view of the same array, so taking many overlapping windows
+ * over a large array costs one small object per window, whatever the window size.
+ *
+ * The view is not a snapshot: changes to the array show through it. Use {@link #toArray()}
+ * or {@link #copyTo(int[], int)} when a copy is really needed; both copy in bulk with
+ * System.arraycopy.
+ */
+public final class IntSlice {
+
+    private final int[] array;
+    private final int offset;
+    private final int length;
+
+    private IntSlice(int[] array, int offset, int length) {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @param array the array to view.
+     * @return a slice of the whole array.
+     */
+    public static IntSlice of(int[] array) {
+        return new IntSlice(Objects.requireNonNull(array), 0, array.length);
+    }
+
+    /**
+     * @param array the array to view.
+     * @param start the starting index (inclusive).
+     * @param end the ending index (exclusive).
+     * @return a slice of array from start to end - 1, empty when start equals end.
+     * @throws IllegalArgumentException if the range is not within the array.
+     */
+    public static IntSlice of(int[] array, int start, int end) {
+        checkRange(start, end, array.length);
+        return new IntSlice(array, start, end - start);
+    }
+
+    /**
+     * @param start the starting index in this slice (inclusive).
+     * @param end the ending index in this slice (exclusive).
+     * @return a slice of this slice, backed by the same array.
+     * @throws IllegalArgumentException if the range is not within this slice.
+     */
+    public IntSlice slice(int start, int end) {
+        checkRange(start, end, length);
+        return new IntSlice(array, offset + start, end - start);
+    }
+
+    /**
+     * @return the number of elements in the slice.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @param index an index in this slice.
+     * @return the element at index.
+     * @throws IndexOutOfBoundsException if index is not within the slice.
+     */
+    public int get(int index) {
+        return array[offset + Objects.checkIndex(index, length)];
+    }
+
+    /**
+     * @return the elements of the slice as a stream, which splits evenly when run in parallel.
+     */
+    public IntStream stream() {
+        return Arrays.stream(array, offset, offset + length);
+    }
+
+    /**
+     * @return a new array with the elements of the slice.
+     */
+    public int[] toArray() {
+        return Arrays.copyOfRange(array, offset, offset + length);
+    }
+
+    /**
+     * Copies the elements of the slice into an array.
+     *
+     * @param target the array to copy into.
+     * @param position the index in target of the first element.
+     * @throws IndexOutOfBoundsException if the elements do not fit in target from position.
+     */
+    public void copyTo(int[] target, int position) {
+        System.arraycopy(array, offset, target, position, length);
+    }
+
+    /**
+     * Slices are equal when they hold the same elements in the same order, wherever they are.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IntSlice other
+                && Arrays.equals(array, offset, offset + length, other.array, other.offset, other.offset + other.length);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + array[i];
+        }
+        return hash;  // The same as Arrays.hashCode(toArray())
+    }
+
+    /**
+     * @return the elements in the format of Arrays.toString.
+     */
+    @Override
+    public String toString() {
+        // A guess of four characters per element, capped so that long slices cannot overflow it
+        StringBuilder out = new StringBuilder((int) Math.min(length * 4L + 2, 1 << 20)).append('[');
+        for (int i = offset; i < offset + length; i++) {
+            if (i > offset) {
+                out.append(", ");
+            }
+            out.append(array[i]);
+        }
+        return out.append(']').toString();
+    }
+
+    private static void checkRange(int start, int end, int length) {
+        if (start < 0 || end > length || start > end) {
+            throw new IllegalArgumentException("Invalid range " + start + " to " + end + " of " + length + " elements.");
+        }
+    }
+}
@@ -1,6 +1,17 @@
 package CodingLabs;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
 public class Palindrome {
+
+    // Reads 8 bytes of a byte[] at once, as a long
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+
     /**
      * Checks if a given string is a palindrome. A palindrome is a word that reads the same
      * forwards and backwards, e.g., "bob", "racecar".
@@ -9,6 +20,9 @@ public class Palindrome {
      * You can reverse the string and compare it with the original,
      * or use a two-pointer approach to compare characters from both ends moving towards the center.
      * 
+     * Characters outside the BMP, such as emoji, are two chars in a String, a surrogate pair;
+     * they are compared as one character, like StringBuilder.reverse does in Option 2.
+     *
      * @param str A string to check.
      * @return true if str is a palindrome, false otherwise.
      */
@@ -23,7 +37,13 @@ public class Palindrome {
         int end = str.length() - 1;
 
         while (start < end) {
-            if (str.charAt(start) != str.charAt(end)) {
+            char first = str.charAt(start);
+            char last = str.charAt(end);
+            if (Character.isSurrogate(first) || Character.isSurrogate(last)) {
+                // A character outside the BMP is a surrogate pair, which must not be reversed
+                return palCodePoints(str, start, end);
+            }
+            if (first != last) {
                 return false; // Characters do not match
             }
             start++;
@@ -41,6 +61,144 @@ public class Palindrome {
         // return str.equals(reversed);
     }
 
+    // The rest of Option 1 from start to end (inclusive), one code point at a time
+    private static boolean palCodePoints(String str, int start, int end) {
+        while (start < end) {
+            int first = str.codePointAt(start);
+            int last = str.codePointBefore(end + 1);
+            if (first != last) {
+                return false;
+            }
+            start += Character.charCount(first);
+            end -= Character.charCount(last);
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a string is a palindrome when only its letters and digits count, and upper and
+     * lower case are the same, e.g., "A man, a plan, a canal: Panama". Like
+     * {@link #pal(String)} it moves two pointers towards the center, skipping everything else,
+     * so no cleaned-up or reversed copy is made. It steps by code points, so letters outside the
+     * BMP are compared whole.
+     *
+     * @param str A string to check.
+     * @return true if the letters and digits of str form a palindrome, ignoring case.
+     */
+    public boolean palNormalized(String str){
+        if (str == null) {
+            return true;
+        }
+
+        int start = 0;
+        int end = str.length(); // Exclusive, so the last code point is the one before it
+
+        while (true) {
+            int first = -1;
+            while (start < end) {
+                int c = str.codePointAt(start);
+                start += Character.charCount(c);
+                if (Character.isLetterOrDigit(c)) {
+                    first = c;
+                    break;
+                }
+            }
+            int last = -1;
+            while (start < end) {
+                int c = str.codePointBefore(end);
+                end -= Character.charCount(c);
+                if (Character.isLetterOrDigit(c)) {
+                    last = c;
+                    break;
+                }
+            }
+            if (first == -1 || last == -1) {
+                return true; // At most one letter or digit was left, in the middle
+            }
+            if (fold(first) != fold(last)) {
+                return false;
+            }
+        }
+    }
+
+    // Upper and lower case as one, including letters like the Turkish dotless i
+    private static int fold(int c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Checks if a byte array, such as a Latin-1 or ASCII string, is a palindrome. Instead of one
+     * byte at a time, it compares 8 bytes from the start with the next 8 bytes from the end in
+     * one step, by reading both as a long and reversing the order of the bytes of the second.
+     *
+     * @param bytes The bytes to check.
+     * @return true if bytes reads the same forwards and backwards, also when null or empty.
+     */
+    public boolean palBytes(byte[] bytes){
+        if (bytes == null) {
+            return true;
+        }
+
+        int start = 0;
+        int end = bytes.length; // Exclusive
+
+        while (end - start >= 16) {
+            long head = (long) LONGS.get(bytes, start);
+            long tail = (long) LONGS.get(bytes, end - 8);
+            if (head != Long.reverseBytes(tail)) {
+                return false;
+            }
+            start += 8;
+            end -= 8;
+        }
+        end--;
+        while (start < end) {
+            if (bytes[start] != bytes[end]) {
+                return false;
+            }
+            start++;
+            end--;
+        }
+        return true;
+    }
+
+    /**
+     * Checks many strings with {@link #pal(String)}, in parallel.
+     *
+     * @param strs The strings to check.
+     * @return for each string, whether it is a palindrome.
+     */
+    public boolean[] palAll(String[] strs){
+        return checkAll(strs.length, i -> pal(strs[i]));
+    }
+
+    /**
+     * Checks many strings with {@link #palNormalized(String)}, in parallel.
+     *
+     * @param strs The strings to check.
+     * @return for each string, whether its letters and digits form a palindrome.
+     */
+    public boolean[] palAllNormalized(String[] strs){
+        return checkAll(strs.length, i -> palNormalized(strs[i]));
+    }
+
+    /**
+     * Checks many byte arrays with {@link #palBytes(byte[])}, in parallel.
+     *
+     * @param values The byte arrays to check.
+     * @return for each array, whether it is a palindrome.
+     */
+    public boolean[] palAllBytes(byte[][] values){
+        return checkAll(values.length, i -> palBytes(values[i]));
+    }
+
+    // The range of indexes splits evenly over the common fork/join pool
+    private static boolean[] checkAll(int count, IntPredicate check) {
+        boolean[] result = new boolean[count];
+        IntStream.range(0, count).parallel().forEach(i -> result[i] = check.test(i));
+        return result;
+    }
+
     public static void main(String[] args) {
         Palindrome palindrome = new Palindrome();
 
@@ -50,5 +208,15 @@ public class Palindrome {
         System.out.println(palindrome.pal("hello"));      // Output: false
         System.out.println(palindrome.pal(""));           // Output: true
         System.out.println(palindrome.pal(null));         // Output: true
+        System.out.println(palindrome.pal("a\uD83D\uDE00a"));  // Output: true, the emoji is one character
+
+        // Normalized: only letters and digits, ignoring case
+        System.out.println(palindrome.palNormalized("A man, a plan, a canal: Panama")); // Output: true
+        System.out.println(palindrome.palNormalized("No 'x' in Nixon"));                // Output: true
+        System.out.println(palindrome.palNormalized("Hello, World"));                   // Output: false
+
+        // Many at once
+        boolean[] results = palindrome.palAll(new String[] { "level", "rotor", "java" });
+        System.out.println(java.util.Arrays.toString(results)); // Output: [true, true, false]
     }
 }
\ No newline at end of file
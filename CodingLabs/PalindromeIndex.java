@@ -0,0 +1,187 @@
+package CodingLabs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Every palindrome in one text, found once with Manacher's algorithm in O(n): for each
+ * position, how far the longest palindrome centered there reaches. With that, whether any
+ * range of the text is a palindrome takes O(1), and the longest palindromic substring and the
+ * number of palindromic substrings are known after building.
+ *
+ * The text is a CharSequence, indexed by char like String.substring, or the bytes of a
+ * ByteBuffer, indexed by byte, which is character by character for ASCII and Latin-1 text.
+ * A memory-mapped file ({@link #ofFile(Path)}) is read in place, without becoming a String;
+ * the index itself takes two ints per character.
+ */
+public final class PalindromeIndex {
+
+    private final int length;
+    private final int[] odd;   // odd[i]: the longest odd palindrome centered on i is 2 * odd[i] - 1 long
+    private final int[] even;  // even[i]: the longest even palindrome centered just before i is 2 * even[i] long
+    private final Span longest;
+    private final long count;
+
+    /**
+     * A range of the text, from start (inclusive) to end (exclusive).
+     */
+    public record Span(int start, int end) {
+
+        public int length() {
+            return end - start;
+        }
+    }
+
+    // The text being indexed, compared position by position
+    private interface Text {
+        boolean same(int i, int j);
+    }
+
+    private PalindromeIndex(int length, Text text) {
+        this.length = length;
+        this.odd = new int[length];
+        this.even = new int[length];
+
+        // Manacher: [left, right] is the palindrome reaching furthest right so far. A center
+        // inside it starts from the radius of its mirror image, so the text is compared O(n)
+        // times in total.
+        int left = 0;
+        int right = -1;
+        for (int i = 0; i < length; i++) {
+            int k = i > right ? 1 : Math.min(odd[left + right - i], right - i + 1);
+            while (i - k >= 0 && i + k < length && text.same(i - k, i + k)) {
+                k++;
+            }
+            odd[i] = k;
+            if (i + k - 1 > right) {
+                left = i - k + 1;
+                right = i + k - 1;
+            }
+        }
+        left = 0;
+        right = -1;
+        for (int i = 0; i < length; i++) {
+            int k = i > right ? 0 : Math.min(even[left + right - i + 1], right - i + 1);
+            while (i - k - 1 >= 0 && i + k < length && text.same(i - k - 1, i + k)) {
+                k++;
+            }
+            even[i] = k;
+            if (i + k - 1 > right) {
+                left = i - k;
+                right = i + k - 1;
+            }
+        }
+
+        // Each center has as many palindromes as its radius
+        int bestStart = 0;
+        int bestLength = 0;
+        long total = 0;
+        for (int i = 0; i < length; i++) {
+            total += odd[i] + even[i];
+            if (2 * odd[i] - 1 > bestLength) {
+                bestLength = 2 * odd[i] - 1;
+                bestStart = i - odd[i] + 1;
+            }
+            if (2 * even[i] > bestLength) {
+                bestLength = 2 * even[i];
+                bestStart = i - even[i];
+            }
+        }
+        this.longest = new Span(bestStart, bestStart + bestLength);
+        this.count = total;
+    }
+
+    /**
+     * @param text the text to index.
+     * @return the index of text, by char.
+     */
+    public static PalindromeIndex of(CharSequence text) {
+        if (text instanceof String string) {
+            return new PalindromeIndex(string.length(), (i, j) -> string.charAt(i) == string.charAt(j));
+        }
+        return new PalindromeIndex(text.length(), (i, j) -> text.charAt(i) == text.charAt(j));
+    }
+
+    /**
+     * @param bytes the text to index, from the position to the limit of the buffer.
+     * @return the index of the bytes, by byte; index 0 is the position of the buffer.
+     */
+    public static PalindromeIndex of(ByteBuffer bytes) {
+        int base = bytes.position();
+        return new PalindromeIndex(bytes.remaining(), (i, j) -> bytes.get(base + i) == bytes.get(base + j));
+    }
+
+    /**
+     * Indexes a text file without reading it into memory first, by mapping it. The file must
+     * be smaller than 2 GB.
+     *
+     * @param file an ASCII or Latin-1 text file.
+     * @return the index of the bytes of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public static PalindromeIndex ofFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File too large to index: " + channel.size() + " bytes.");
+            }
+            // The mapping stays valid after the channel is closed
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return the length of the indexed text.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Checks if a range of the text reads the same forwards and backwards, in O(1).
+     *
+     * @param start the starting index (inclusive).
+     * @param end the ending index (exclusive).
+     * @return true if the range is a palindrome; an empty range is one.
+     * @throws IllegalArgumentException if the range is not within the text.
+     */
+    public boolean isPalindrome(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IllegalArgumentException("Invalid range " + start + " to " + end + " of " + length + " characters.");
+        }
+        int size = end - start;
+        int center = start + size / 2;
+        if (size % 2 == 1) {
+            return odd[center] > size / 2;
+        }
+        return size == 0 || even[center] >= size / 2;
+    }
+
+    /**
+     * @return the longest palindromic substring, the first one if several are as long; empty
+     *         only for an empty text.
+     */
+    public Span longest() {
+        return longest;
+    }
+
+    /**
+     * @return the number of palindromic substrings, each single character included, counting
+     *         equal substrings at different positions separately.
+     */
+    public long count() {
+        return count;
+    }
+
+    public static void main(String[] args) {
+        PalindromeIndex index = PalindromeIndex.of("abacdcaba");
+
+        System.out.println(index.longest());            // Output: Span[start=0, end=9]
+        System.out.println(index.count());              // Output: 15
+        System.out.println(index.isPalindrome(0, 3));   // Output: true, "aba"
+        System.out.println(index.isPalindrome(3, 6));   // Output: true, "cdc"
+        System.out.println(index.isPalindrome(1, 4));   // Output: false, "bac"
+    }
+}
@@ -0,0 +1,502 @@
+package CodingLabs;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Aggregates over every window of a fixed size in a large array: for window size w, result i
+ * is the sum, minimum, maximum or mean of the elements from i to i + w - 1, the range that
+ * {@link SubArray#sub(int[], int, int)} would copy out. Nothing is copied here. Each result is
+ * computed in O(1) steps instead of scanning its window again: a sum adds the element that
+ * enters the window to the sum before it and subtracts the one that leaves it, and a minimum
+ * or maximum combines two running extremes over blocks of one window length.
+ *
+ * There is one specialization per element type, {@link OfInt}, {@link OfLong} and
+ * {@link OfDouble}, so nothing is boxed. Each takes an array or an NIO buffer; a direct buffer
+ * keeps the data off the heap, for example in a memory-mapped file. The elements of a buffer
+ * are those from its position to its limit.
+ *
+ * Large inputs are split into chunks of results that run in parallel on the common fork/join
+ * pool. Every chunk starts by computing its first window in full, so a chunk is at least
+ * {@value #MIN_CHUNK} results and at least four windows long to keep that cost small.
+ */
+public final class SlidingWindows {
+
+    static final int MIN_CHUNK = 1 << 16;
+
+    private SlidingWindows() { }
+
+    /**
+     * @param values the elements.
+     * @param window the number of elements in a window.
+     * @return the windows of values.
+     * @throws IllegalArgumentException if window is not between 1 and values.length.
+     */
+    public static OfInt of(int[] values, int window) {
+        return new OfInt(IntBuffer.wrap(values), window);
+    }
+
+    /**
+     * @param values the elements, from the position to the limit of the buffer.
+     * @param window the number of elements in a window.
+     * @return the windows of values.
+     * @throws IllegalArgumentException if window is not between 1 and values.remaining().
+     */
+    public static OfInt of(IntBuffer values, int window) {
+        return new OfInt(values, window);
+    }
+
+    /**
+     * @see #of(int[], int)
+     */
+    public static OfLong of(long[] values, int window) {
+        return new OfLong(LongBuffer.wrap(values), window);
+    }
+
+    /**
+     * @see #of(IntBuffer, int)
+     */
+    public static OfLong of(LongBuffer values, int window) {
+        return new OfLong(values, window);
+    }
+
+    /**
+     * @see #of(int[], int)
+     */
+    public static OfDouble of(double[] values, int window) {
+        return new OfDouble(DoubleBuffer.wrap(values), window);
+    }
+
+    /**
+     * @see #of(IntBuffer, int)
+     */
+    public static OfDouble of(DoubleBuffer values, int window) {
+        return new OfDouble(values, window);
+    }
+
+    /**
+     * The windows of int elements. Sums are longs, so they do not overflow.
+     */
+    public static final class OfInt {
+        private final IntBuffer values;
+        private final int base;
+        private final int window;
+        private final int count;
+
+        private OfInt(IntBuffer values, int window) {
+            this.values = values;
+            this.base = values.position();
+            this.window = window;
+            this.count = windowCount(values.remaining(), window);
+        }
+
+        /**
+         * @return the number of windows, and so of results.
+         */
+        public int count() {
+            return count;
+        }
+
+        /**
+         * @return the sum of each window.
+         */
+        public long[] sums() {
+            long[] out = new long[count];
+            forEachChunk(count, window, (from, to) -> {
+                long sum = 0;
+                for (int i = from; i < from + window; i++) {
+                    sum += values.get(base + i);
+                }
+                out[from] = sum;
+                for (int i = from + 1; i < to; i++) {
+                    sum += values.get(base + i + window - 1) - (long) values.get(base + i - 1);
+                    out[i] = sum;
+                }
+            });
+            return out;
+        }
+
+        /**
+         * @return the mean of each window.
+         */
+        public double[] means() {
+            long[] sums = sums();
+            double[] out = new double[count];
+            for (int i = 0; i < count; i++) {
+                out[i] = (double) sums[i] / window;
+            }
+            return out;
+        }
+
+        /**
+         * @return the smallest element of each window.
+         */
+        public int[] minima() {
+            return extremes(false);
+        }
+
+        /**
+         * @return the largest element of each window.
+         */
+        public int[] maxima() {
+            return extremes(true);
+        }
+
+        // van Herk/Gil-Werman: the elements are split into blocks of one window length. A window
+        // spans the end of one block and the start of the next, so its extreme combines two
+        // running extremes: from its first element to the end of that block, kept in out by a
+        // backward pass, and from the start of the next block to its last element, taken in a
+        // forward pass.
+        private int[] extremes(boolean max) {
+            int[] out = new int[count];
+            forEachChunk(count, window, (from, to) -> {
+                int end = to + window - 1;
+                int blockEnd;
+                for (int blockStart = from; blockStart < end; blockStart = blockEnd) {
+                    blockEnd = (int) Math.min((long) blockStart + window, end);
+                    int run = values.get(base + blockEnd - 1);
+                    for (int j = blockEnd - 1; j >= blockStart; j--) {
+                        int value = values.get(base + j);
+                        run = max ? Math.max(run, value) : Math.min(run, value);
+                        if (j < to) {
+                            out[j] = run;  // From j to the end of the block
+                        }
+                    }
+                    run = values.get(base + blockStart);
+                    for (int j = blockStart; j < blockEnd; j++) {
+                        int value = values.get(base + j);
+                        run = max ? Math.max(run, value) : Math.min(run, value);
+                        int first = j - window + 1;  // The window that ends at j
+                        if (first >= from) {
+                            out[first] = max ? Math.max(out[first], run) : Math.min(out[first], run);
+                        }
+                    }
+                }
+            });
+            return out;
+        }
+    }
+
+    /**
+     * The windows of long elements. Sums overflow silently, like LongStream.sum.
+     */
+    public static final class OfLong {
+        private final LongBuffer values;
+        private final int base;
+        private final int window;
+        private final int count;
+
+        private OfLong(LongBuffer values, int window) {
+            this.values = values;
+            this.base = values.position();
+            this.window = window;
+            this.count = windowCount(values.remaining(), window);
+        }
+
+        /**
+         * @return the number of windows, and so of results.
+         */
+        public int count() {
+            return count;
+        }
+
+        /**
+         * @return the sum of each window.
+         */
+        public long[] sums() {
+            long[] out = new long[count];
+            forEachChunk(count, window, (from, to) -> {
+                long sum = 0;
+                for (int i = from; i < from + window; i++) {
+                    sum += values.get(base + i);
+                }
+                out[from] = sum;
+                for (int i = from + 1; i < to; i++) {
+                    sum += values.get(base + i + window - 1) - values.get(base + i - 1);
+                    out[i] = sum;
+                }
+            });
+            return out;
+        }
+
+        /**
+         * @return the mean of each window.
+         */
+        public double[] means() {
+            long[] sums = sums();
+            double[] out = new double[count];
+            for (int i = 0; i < count; i++) {
+                out[i] = (double) sums[i] / window;
+            }
+            return out;
+        }
+
+        /**
+         * @return the smallest element of each window.
+         */
+        public long[] minima() {
+            return extremes(false);
+        }
+
+        /**
+         * @return the largest element of each window.
+         */
+        public long[] maxima() {
+            return extremes(true);
+        }
+
+        // See OfInt.extremes
+        private long[] extremes(boolean max) {
+            long[] out = new long[count];
+            forEachChunk(count, window, (from, to) -> {
+                int end = to + window - 1;
+                int blockEnd;
+                for (int blockStart = from; blockStart < end; blockStart = blockEnd) {
+                    blockEnd = (int) Math.min((long) blockStart + window, end);
+                    long run = values.get(base + blockEnd - 1);
+                    for (int j = blockEnd - 1; j >= blockStart; j--) {
+                        long value = values.get(base + j);
+                        run = max ? Math.max(run, value) : Math.min(run, value);
+                        if (j < to) {
+                            out[j] = run;  // From j to the end of the block
+                        }
+                    }
+                    run = values.get(base + blockStart);
+                    for (int j = blockStart; j < blockEnd; j++) {
+                        long value = values.get(base + j);
+                        run = max ? Math.max(run, value) : Math.min(run, value);
+                        int first = j - window + 1;  // The window that ends at j
+                        if (first >= from) {
+                            out[first] = max ? Math.max(out[first], run) : Math.min(out[first], run);
+                        }
+                    }
+                }
+            });
+            return out;
+        }
+    }
+
+    /**
+     * The windows of double elements. Sums are compensated (Neumaier), so adding and taking
+     * away elements over millions of steps does not drift. A sum is what adding up its window
+     * afresh would give, also for NaN and infinite elements: NaN while a NaN or infinities of
+     * both signs are in the window, the infinity otherwise, and a finite sum again once they
+     * have left it. Minima and maxima follow Math.min and Math.max: a window with a NaN
+     * element has NaN as its minimum and maximum.
+     */
+    public static final class OfDouble {
+        private final DoubleBuffer values;
+        private final int base;
+        private final int window;
+        private final int count;
+
+        private OfDouble(DoubleBuffer values, int window) {
+            this.values = values;
+            this.base = values.position();
+            this.window = window;
+            this.count = windowCount(values.remaining(), window);
+        }
+
+        /**
+         * @return the number of windows, and so of results.
+         */
+        public int count() {
+            return count;
+        }
+
+        /**
+         * @return the sum of each window.
+         */
+        public double[] sums() {
+            double[] out = new double[count];
+            forEachChunk(count, window, (from, to) -> {
+                // The finite elements are summed, the others only counted, so that a NaN or an
+                // infinity cannot stay in the running sum after it has left the window
+                CompensatedSum sum = new CompensatedSum();
+                int nans = 0;
+                int positiveInfinities = 0;
+                int negativeInfinities = 0;
+                for (int i = from; i < to + window - 1; i++) {
+                    double entering = values.get(base + i);
+                    if (Double.isFinite(entering)) {
+                        sum.add(entering);
+                    } else if (Double.isNaN(entering)) {
+                        nans++;
+                    } else if (entering > 0) {
+                        positiveInfinities++;
+                    } else {
+                        negativeInfinities++;
+                    }
+                    if (i >= from + window) {
+                        double leaving = values.get(base + i - window);
+                        if (Double.isFinite(leaving)) {
+                            sum.add(-leaving);
+                        } else if (Double.isNaN(leaving)) {
+                            nans--;
+                        } else if (leaving > 0) {
+                            positiveInfinities--;
+                        } else {
+                            negativeInfinities--;
+                        }
+                    }
+                    if (!sum.isFinite()) {
+                        // The finite elements overflowed: add up the window again, as the running
+                        // sum cannot take the overflow back
+                        sum = new CompensatedSum();
+                        for (int j = Math.max(from, i - window + 1); j <= i; j++) {
+                            double value = values.get(base + j);
+                            if (Double.isFinite(value)) {
+                                sum.add(value);
+                            }
+                        }
+                    }
+                    if (i >= from + window - 1) {
+                        out[i - window + 1] = nans > 0 || (positiveInfinities > 0 && negativeInfinities > 0) ? Double.NaN
+                                : positiveInfinities > 0 ? Double.POSITIVE_INFINITY
+                                : negativeInfinities > 0 ? Double.NEGATIVE_INFINITY
+                                : sum.value();  // An infinity if the finite elements overflow
+                    }
+                }
+            });
+            return out;
+        }
+
+        /**
+         * @return the mean of each window.
+         */
+        public double[] means() {
+            double[] out = sums();
+            for (int i = 0; i < count; i++) {
+                out[i] /= window;
+            }
+            return out;
+        }
+
+        /**
+         * @return the smallest element of each window.
+         */
+        public double[] minima() {
+            return extremes(false);
+        }
+
+        /**
+         * @return the largest element of each window.
+         */
+        public double[] maxima() {
+            return extremes(true);
+        }
+
+        // See OfInt.extremes
+        private double[] extremes(boolean max) {
+            double[] out = new double[count];
+            forEachChunk(count, window, (from, to) -> {
+                int end = to + window - 1;
+                int blockEnd;
+                for (int blockStart = from; blockStart < end; blockStart = blockEnd) {
+                    blockEnd = (int) Math.min((long) blockStart + window, end);
+                    double run = values.get(base + blockEnd - 1);
+                    for (int j = blockEnd - 1; j >= blockStart; j--) {
+                        double value = values.get(base + j);
+                        run = max ? Math.max(run, value) : Math.min(run, value);
+                        if (j < to) {
+                            out[j] = run;  // From j to the end of the block
+                        }
+                    }
+                    run = values.get(base + blockStart);
+                    for (int j = blockStart; j < blockEnd; j++) {
+                        double value = values.get(base + j);
+                        run = max ? Math.max(run, value) : Math.min(run, value);
+                        int first = j - window + 1;  // The window that ends at j
+                        if (first >= from) {
+                            out[first] = max ? Math.max(out[first], run) : Math.min(out[first], run);
+                        }
+                    }
+                }
+            });
+            return out;
+        }
+    }
+
+    // Neumaier summation: compensation keeps the low-order bits that sum has lost
+    private static final class CompensatedSum {
+        private double sum;
+        private double compensation;
+
+        void add(double value) {
+            double t = sum + value;
+            compensation += Math.abs(sum) >= Math.abs(value) ? (sum - t) + value : (value - t) + sum;
+            sum = t;
+        }
+
+        boolean isFinite() {
+            return Double.isFinite(sum) && Double.isFinite(compensation);
+        }
+
+        double value() {
+            return Double.isFinite(sum) ? sum + compensation : sum;
+        }
+    }
+
+    private static int windowCount(int length, int window) {
+        if (window < 1 || window > length) {
+            throw new IllegalArgumentException("Invalid window " + window + " for " + length + " elements.");
+        }
+        return length - window + 1;
+    }
+
+    // Computes the results from (inclusive) to (exclusive) of one chunk
+    private interface Chunk {
+        void compute(int from, int to);
+    }
+
+    private static void forEachChunk(int count, int window, Chunk chunk) {
+        int chunkSize = (int) Math.max(MIN_CHUNK, 4L * window);
+        if (count <= chunkSize) {
+            chunk.compute(0, count);
+        } else {
+            ForkJoinPool.commonPool().invoke(new Chunks(chunk, 0, count, chunkSize));
+        }
+    }
+
+    private static final class Chunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Chunk chunk;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        Chunks(Chunk chunk, int from, int to, int chunkSize) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                chunk.compute(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Chunks(chunk, from, middle, chunkSize), new Chunks(chunk, middle, to, chunkSize));
+        }
+    }
+
+    public static void main(String[] args) {
+        OfInt ints = SlidingWindows.of(new int[] { 4, 2, 12, 3, 8, 1 }, 3);
+
+        System.out.println(Arrays.toString(ints.sums()));     // Output: [18, 17, 23, 12]
+        System.out.println(Arrays.toString(ints.maxima()));   // Output: [12, 12, 12, 8]
+
+        // A NaN or an infinity only spoils the sums of the windows it is in
+        double[] doubles = { 1, Double.NaN, 2, 3, Double.POSITIVE_INFINITY, 4, 5, 6 };
+        System.out.println(Arrays.toString(SlidingWindows.of(doubles, 2).sums()));
+        // Output: [NaN, NaN, 5.0, Infinity, Infinity, 9.0, 11.0]
+    }
+}
@@ -7,7 +7,8 @@ public class SubArray {
      * The start index is inclusive, and the end index is exclusive.
      *
      * A new array is created with the size equal to (end - start), and values are copied from
-     * the original array using a loop.
+     * the original array in one bulk copy. To look at a range without copying it, use
+     * {@link #slice(int[], int, int)}.
      *
      * @param nums the original array of integers.
      * @param start the starting index (inclusive).
@@ -23,13 +24,37 @@ public class SubArray {
 
         int[] subArray = new int[end - start];
 
-        for (int i = start; i < end; i++) {
-            subArray[i - start] = nums[i];
-        }
+        // Option 1. Bulk copy: System.arraycopy is a JVM intrinsic that copies with vector
+        // instructions where the CPU has them
+        System.arraycopy(nums, start, subArray, 0, end - start);
+
+        // Option 2. Copying element by element in a loop
+        // for (int i = start; i < end; i++) {
+        //     subArray[i - start] = nums[i];
+        // }
 
         return subArray;
     }
 
+    /**
+     * Returns the same range as {@link #sub(int[], int, int)}, but as a view of the original
+     * array instead of a copy. Creating it costs the same for any range length.
+     *
+     * @param nums the original array of integers.
+     * @param start the starting index (inclusive).
+     * @param end the ending index (exclusive).
+     * @return a slice of nums from start to end - 1.
+     * @throws IllegalArgumentException if indices are out of bounds or invalid.
+     */
+    public IntSlice slice(int[] nums, int start, int end){
+        // Validate input range, like sub
+        if (start < 0 || end > nums.length || start >= end) {
+            throw new IllegalArgumentException("Invalid start or end indices.");
+        }
+
+        return IntSlice.of(nums, start, end);
+    }
+
     public static void main(String[] args) {
         SubArray sa = new SubArray();
         int[] nums = {1, 2, 3, 4, 5};
@@ -39,5 +64,11 @@ public class SubArray {
         for (int num : result) {
             System.out.print(num + " "); // Output: 2 3 4
         }
+        System.out.println();
+
+        IntSlice slice = sa.slice(nums, 1, 4);
+        System.out.println(slice);                  // Output: [2, 3, 4]
+        System.out.println(slice.slice(1, 3));      // Output: [3, 4]
+        System.out.println(slice.stream().sum());   // Output: 9
     }
 }
\ No newline at end of file
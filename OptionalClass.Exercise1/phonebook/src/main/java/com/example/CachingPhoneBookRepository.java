@@ -0,0 +1,141 @@
+package com.example;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded read-through cache in front of a slower phone book, such as H2PhoneBookRepository.
+//
+// Lookups by name and by number have a LookupCache each. Misses are cached too (as
+// Optional.empty(), usually with a shorter TTL), so repeated lookups of unknown names or
+// numbers do not reach the store either. Cached Optionals are handed out as they are, so a
+// hit allocates nothing.
+//
+// Writes go to the store first, then invalidate what they touched: the name, its new number
+// and, through cachedKeyByName, the number it is cached as holding so far. A lookup that
+// raced with a write drops what it cached, so the cache never keeps an answer older than the
+// last write made through it. Writes that bypass this class are seen once their entries expire.
+public class CachingPhoneBookRepository implements PhoneBookRepository {
+
+    private final PhoneBookRepository delegate;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LookupCache<String, Optional<String>> numbersByName;
+    private final LookupCache<Long, Optional<String>> namesByKey;
+    // Number key each name is cached as holding, so moving the name can invalidate it. Entries
+    // leave with their namesByKey entry, so this stays as small as the cache.
+    private final ConcurrentHashMap<String, Long> cachedKeyByName = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    // Cache up to capacity answers per lookup direction, with W-TinyLFU eviction and no TTL
+    public CachingPhoneBookRepository(PhoneBookRepository delegate, int capacity) {
+        this(delegate, capacity, LookupCache.Eviction.TINY_LFU, Duration.ZERO, Duration.ZERO);
+    }
+
+    // A TTL of Duration.ZERO keeps entries until they are evicted or invalidated
+    public CachingPhoneBookRepository(PhoneBookRepository delegate, int capacity, LookupCache.Eviction eviction,
+                                      Duration ttl, Duration negativeTtl) {
+        if (ttl.isNegative() || negativeTtl.isNegative()) {
+            throw new IllegalArgumentException("TTL must not be negative");
+        }
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.numbersByName = new LookupCache<>(capacity, eviction);
+        this.namesByKey = new LookupCache<>(capacity, eviction,
+                (key, holder) -> holder.ifPresent(name -> cachedKeyByName.remove(name, key)));
+    }
+
+    // Find phone number by name
+    @Override
+    public Optional<String> findPhoneNumberByName(String name) {
+        if (name == null) {
+            return delegate.findPhoneNumberByName(null);
+        }
+        Optional<String> cached = numbersByName.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = version.get();
+        Optional<String> phoneNumber = delegate.findPhoneNumberByName(name);
+        numbersByName.put(name, phoneNumber, phoneNumber.isPresent() ? ttlNanos : negativeTtlNanos);
+        if (version.get() != seen) {
+            numbersByName.invalidate(name);
+        }
+        return phoneNumber;
+    }
+
+    // Find name by phone number
+    @Override
+    public Optional<String> findNameByPhoneNumber(String phoneNumber) {
+        long key = PhoneNumbers.toKey(phoneNumber);
+        if (key == PhoneNumbers.NO_KEY) {
+            return Optional.empty();
+        }
+        Optional<String> cached = namesByKey.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = version.get();
+        Optional<String> name = delegate.findNameByPhoneNumber(phoneNumber);
+        // Recorded before caching, so the removal listener can clean up after an instant eviction
+        name.ifPresent(holder -> {
+            Long previousKey = cachedKeyByName.put(holder, key);
+            if (previousKey != null && previousKey != key) {
+                namesByKey.invalidate(previousKey);
+            }
+        });
+        namesByKey.put(key, name, name.isPresent() ? ttlNanos : negativeTtlNanos);
+        if (version.get() != seen) {
+            namesByKey.invalidate(key);
+        }
+        return name;
+    }
+
+    // Add an entry to the store, then drop the cached answers it changes
+    @Override
+    public void addEntry(String name, String phoneNumber) {
+        try {
+            delegate.addEntry(name, phoneNumber);
+        } finally {
+            invalidate(name, phoneNumber);
+        }
+    }
+
+    // Add many entries to the store, then drop the cached answers they change
+    @Override
+    public void addEntries(Map<String, String> entries) {
+        try {
+            delegate.addEntries(entries);
+        } finally {
+            entries.forEach(this::invalidate);
+        }
+    }
+
+    public LookupCache.Stats nameCacheStats() {
+        return numbersByName.stats();
+    }
+
+    public LookupCache.Stats numberCacheStats() {
+        return namesByKey.stats();
+    }
+
+    private void invalidate(String name, String phoneNumber) {
+        // Lookups that started before the write must not cache what they read
+        version.incrementAndGet();
+        if (name == null) {
+            return;
+        }
+        numbersByName.invalidate(name);
+        long key = PhoneNumbers.toKey(phoneNumber);
+        if (key != PhoneNumbers.NO_KEY) {
+            namesByKey.invalidate(key);
+        }
+        Long previousKey = cachedKeyByName.remove(name);
+        if (previousKey != null) {
+            namesByKey.invalidate(previousKey);
+        }
+    }
+}
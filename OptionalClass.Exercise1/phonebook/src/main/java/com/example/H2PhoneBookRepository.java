@@ -0,0 +1,341 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Phone book stored in an H2 database.
+//
+// Writes are handed to a single writer thread, which turns everything that queued up into
+// one JDBC batch and one transaction; addEntry returns once its batch is committed. Entries
+// are checked against the schema before they are queued, and if a transaction fails anyway,
+// every call in it is retried in a transaction of its own, so one bad call cannot fail the
+// calls it happened to share a batch with. Lookups go through a small pool of connections,
+// each preparing its statements once.
+//
+// The table is indexed by name (primary key) and by the packed phone number key plus the
+// time the name took the number, so finding the oldest holder of a number is one index seek.
+//
+// Put a CachingPhoneBookRepository in front to keep hot lookups off the database.
+public class H2PhoneBookRepository implements PhoneBookRepository, AutoCloseable {
+
+    private static final int MAX_BATCH = 1_000;  // Rows per executeBatch
+    private static final int MAX_NAME_LENGTH = 21845;  // Column sizes of the table below
+    private static final int MAX_NUMBER_LENGTH = 85;
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS phone_book (
+                name VARCHAR(21845) PRIMARY KEY,
+                phone_number VARCHAR(85) NOT NULL,
+                number_key BIGINT NOT NULL,
+                since BIGINT NOT NULL
+            )""";
+    private static final String CREATE_NUMBER_INDEX =
+            "CREATE INDEX IF NOT EXISTS phone_book_number ON phone_book (number_key, since)";
+
+    // Same number in another format keeps the name's position among the holders
+    private static final String UPSERT = """
+            MERGE INTO phone_book t
+            USING (VALUES (CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS BIGINT), CAST(? AS BIGINT)))
+                AS s (name, phone_number, number_key, since)
+            ON t.name = s.name
+            WHEN MATCHED AND t.number_key = s.number_key THEN
+                UPDATE SET phone_number = s.phone_number
+            WHEN MATCHED THEN
+                UPDATE SET phone_number = s.phone_number, number_key = s.number_key, since = s.since
+            WHEN NOT MATCHED THEN
+                INSERT VALUES (s.name, s.phone_number, s.number_key, s.since)""";
+    private static final String FIND_NUMBER = "SELECT phone_number FROM phone_book WHERE name = ?";
+    private static final String FIND_NAME =
+            "SELECT name FROM phone_book WHERE number_key = ? ORDER BY since LIMIT 1";
+
+    // A queued batch of entries, completed by the writer thread
+    private record Pending(Map<String, String> entries, CompletableFuture<Void> done) { }
+
+    private static final Pending CLOSE = new Pending(null, null);
+
+    private final BlockingQueue<Reader> readers;
+    private final List<Reader> allReaders = new ArrayList<>();
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Object queueLock = new Object();  // Nothing is queued behind CLOSE
+    private final Connection writeConnection;
+    private final PreparedStatement upsert;
+    private final Thread writer;
+    private long nextSince;  // Only touched by the writer thread
+    private volatile boolean closed;  // Set under queueLock
+
+    private H2PhoneBookRepository(String jdbcUrl, int readerCount) throws SQLException {
+        this.readers = new ArrayBlockingQueue<>(readerCount);
+        this.writeConnection = DriverManager.getConnection(jdbcUrl);
+        try {
+            try (Statement statement = writeConnection.createStatement()) {
+                statement.execute(CREATE_TABLE);
+                statement.execute(CREATE_NUMBER_INDEX);
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(since), 0) FROM phone_book")) {
+                    rs.next();
+                    nextSince = rs.getLong(1) + 1;
+                }
+            }
+            writeConnection.setAutoCommit(false);
+            this.upsert = writeConnection.prepareStatement(UPSERT);
+            for (int i = 0; i < readerCount; i++) {
+                Reader reader = new Reader(DriverManager.getConnection(jdbcUrl));
+                allReaders.add(reader);
+                readers.add(reader);
+            }
+        } catch (SQLException e) {
+            closeConnections();
+            throw e;
+        }
+        this.writer = new Thread(this::runWriter, "phonebook-h2-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Open (and create if needed) the phone book in the database at the given JDBC URL
+    public static H2PhoneBookRepository open(String jdbcUrl) throws SQLException {
+        return open(jdbcUrl, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Same, with readerCount pooled connections for lookups
+    public static H2PhoneBookRepository open(String jdbcUrl, int readerCount) throws SQLException {
+        if (readerCount < 1) {
+            throw new IllegalArgumentException("readerCount must be positive: " + readerCount);
+        }
+        return new H2PhoneBookRepository(jdbcUrl, readerCount);
+    }
+
+    // Find phone number by name
+    @Override
+    public Optional<String> findPhoneNumberByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(query(reader -> reader.findNumber, statement -> statement.setString(1, name)));
+    }
+
+    // Find name by phone number
+    @Override
+    public Optional<String> findNameByPhoneNumber(String phoneNumber) {
+        long key = PhoneNumbers.toKey(phoneNumber);
+        if (key == PhoneNumbers.NO_KEY) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(query(reader -> reader.findName, statement -> statement.setLong(1, key)));
+    }
+
+    // Add an entry, returning once it is committed
+    @Override
+    public void addEntry(String name, String phoneNumber) {
+        validate(name, phoneNumber);
+        await(enqueue(Map.of(name, phoneNumber)));
+    }
+
+    // Add many entries in one transaction
+    @Override
+    public void addEntries(Map<String, String> entries) {
+        entries.forEach(H2PhoneBookRepository::validate);
+        if (!entries.isEmpty()) {
+            await(enqueue(Map.copyOf(entries)));
+        }
+    }
+
+    // Finish all queued writes, then close every connection
+    @Override
+    public void close() throws SQLException {
+        synchronized (queueLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(CLOSE);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeConnections();
+        }
+    }
+
+    private static void validate(String name, String phoneNumber) {
+        Objects.requireNonNull(name, "name");
+        if (PhoneNumbers.toKey(phoneNumber) == PhoneNumbers.NO_KEY) {
+            throw new IllegalArgumentException("Invalid phone number: " + phoneNumber);
+        }
+        if (name.length() > MAX_NAME_LENGTH || phoneNumber.length() > MAX_NUMBER_LENGTH) {
+            throw new IllegalArgumentException("Entry too long: " + name);
+        }
+    }
+
+    // The closed check and the add are one step, so a writer cannot slip in behind CLOSE
+    // where the writer thread would never complete its future
+    private CompletableFuture<Void> enqueue(Map<String, String> entries) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (queueLock) {
+            if (closed) {
+                throw new IllegalStateException("Phone book is closed");
+            }
+            queue.add(new Pending(entries, done));
+        }
+        return done;
+    }
+
+    private static void await(CompletableFuture<Void> done) {
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    // Writer thread: commit everything that queued up as one batch, repeat
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            batch.clear();
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;  // Only close() stops the writer
+            }
+            queue.drainTo(batch);
+            if (batch.remove(CLOSE)) {
+                running = false;
+            }
+
+            try {
+                write(batch);
+                batch.forEach(pending -> pending.done().complete(null));
+            } catch (SQLException e) {
+                if (batch.size() == 1) {
+                    batch.get(0).done().completeExceptionally(new IllegalStateException("Writing to the phone book failed", e));
+                } else {
+                    batch.forEach(this::writeAlone);
+                }
+            }
+        }
+    }
+
+    // Retry one call of a failed batch in its own transaction
+    private void writeAlone(Pending pending) {
+        try {
+            write(List.of(pending));
+            pending.done().complete(null);
+        } catch (SQLException e) {
+            pending.done().completeExceptionally(new IllegalStateException("Writing to the phone book failed", e));
+        }
+    }
+
+    private void write(List<Pending> batch) throws SQLException {
+        long firstSince = nextSince;
+        try {
+            int rows = 0;
+            for (Pending pending : batch) {
+                for (Map.Entry<String, String> entry : pending.entries().entrySet()) {
+                    upsert.setString(1, entry.getKey());
+                    upsert.setString(2, entry.getValue());
+                    upsert.setLong(3, PhoneNumbers.toKey(entry.getValue()));
+                    upsert.setLong(4, nextSince++);
+                    upsert.addBatch();
+                    if (++rows % MAX_BATCH == 0) {
+                        upsert.executeBatch();
+                    }
+                }
+            }
+            upsert.executeBatch();
+            writeConnection.commit();
+        } catch (SQLException e) {
+            nextSince = firstSince;
+            upsert.clearBatch();
+            writeConnection.rollback();
+            throw e;
+        }
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    private interface StatementChoice {
+        PreparedStatement of(Reader reader);
+    }
+
+    // Run a single-column lookup on a pooled connection, returning the first value or null
+    private String query(StatementChoice choice, Binder binder) {
+        if (closed) {
+            throw new IllegalStateException("Phone book is closed");
+        }
+        Reader reader;
+        try {
+            reader = readers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            PreparedStatement statement = choice.of(reader);
+            binder.bind(statement);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Reading from the phone book failed", e);
+        } finally {
+            readers.add(reader);
+        }
+    }
+
+    private void closeConnections() throws SQLException {
+        SQLException failure = null;
+        List<Connection> connections = new ArrayList<>();
+        connections.add(writeConnection);
+        allReaders.forEach(reader -> connections.add(reader.connection));
+        for (Connection connection : connections) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // A pooled connection with its lookups prepared once
+    private static final class Reader {
+        final Connection connection;
+        final PreparedStatement findNumber;
+        final PreparedStatement findName;
+
+        Reader(Connection connection) throws SQLException {
+            this.connection = connection;
+            try {
+                this.findNumber = connection.prepareStatement(FIND_NUMBER);
+                this.findName = connection.prepareStatement(FIND_NAME);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+    }
+}
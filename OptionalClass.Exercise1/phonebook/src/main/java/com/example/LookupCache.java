@@ -0,0 +1,438 @@
+package com.example;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+// Size-bounded cache with optional time-to-live, used to keep hot lookups off a slow store.
+//
+// Two eviction policies:
+//   LRU       evicts the least recently used entry.
+//   TINY_LFU  W-TinyLFU: new entries land in a small LRU window (1% of the capacity). When the
+//             window overflows, its oldest entry may enter the main area only if it has been
+//             asked for more often than the main area's eviction victim, judged by a 4-bit
+//             count-min sketch of recent access frequencies that halves itself periodically.
+//             The main area is a segmented LRU, so entries hit twice are protected from
+//             entries seen once. One-off scans therefore cannot flush out the hot entries.
+//
+// The cache is split into segments, each with its own lock, queues and sketch. Lookups do not
+// take the lock: they read a concurrent map and note the access in a small ring buffer. The
+// queues and the sketch catch up with the buffer under the lock, when a lookup fills it and
+// the lock is free, and before every write. Under heavy contention a buffer may overwrite
+// accesses nobody has applied yet, which only makes the eviction order a little less exact.
+// Counters are LongAdders, so reading them never blocks a lookup.
+public final class LookupCache<K, V> {
+
+    public enum Eviction { LRU, TINY_LFU }
+
+    // Counters since the cache was created
+    public record Stats(long hits, long misses, long evictions, long expirations) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private static final long NEVER = Long.MAX_VALUE;
+    private static final int SEGMENTED_FROM = 4096;  // Smaller caches use one segment
+    private static final int SEGMENTS = 16;  // Power of two
+    private static final int READ_BUFFER = 64;  // Accesses per segment between drains, power of two
+
+    private final Segment<K, V>[] segments;
+    private final LongSupplier ticker;
+    private final BiConsumer<? super K, ? super V> removalListener;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public LookupCache(int capacity, Eviction eviction) {
+        this(capacity, eviction, (key, value) -> { });
+    }
+
+    // The removal listener is called, under the segment lock, for every entry that is evicted
+    // or found expired; not for invalidated ones
+    LookupCache(int capacity, Eviction eviction, BiConsumer<? super K, ? super V> removalListener) {
+        this(capacity, eviction, removalListener, System::nanoTime);
+    }
+
+    // The ticker supplies the time in nanoseconds, for tests
+    @SuppressWarnings("unchecked")
+    LookupCache(int capacity, Eviction eviction, BiConsumer<? super K, ? super V> removalListener, LongSupplier ticker) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int count = capacity >= SEGMENTED_FROM ? SEGMENTS : 1;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(this, (capacity + count - 1) / count, eviction);
+        }
+        this.ticker = ticker;
+        this.removalListener = removalListener;
+    }
+
+    // The cached value, or null if the key is absent or its entry has expired
+    public V get(K key) {
+        int hash = spread(key.hashCode());
+        return segmentFor(hash).get(key, hash, ticker.getAsLong());
+    }
+
+    // Cache a value that expires after ttlNanos (0 for never)
+    public void put(K key, V value, long ttlNanos) {
+        if (ttlNanos < 0) {
+            throw new IllegalArgumentException("TTL must not be negative: " + ttlNanos);
+        }
+        int hash = spread(key.hashCode());
+        segmentFor(hash).put(key, hash, value, ttlNanos, ticker.getAsLong());
+    }
+
+    public void invalidate(K key) {
+        int hash = spread(key.hashCode());
+        segmentFor(hash).invalidate(key);
+    }
+
+    // Number of cached entries, including expired ones not cleaned up yet
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    private Segment<K, V> segmentFor(int hash) {
+        return segments[(hash >>> 16) & (segments.length - 1)];
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+
+    private static final byte WINDOW = 0;  // Also the only queue of the LRU policy
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+    private static final byte REMOVED = 3;  // In no queue any more, buffered accesses are ignored
+
+    private static final class Node<K, V> {
+        final K key;
+        final int hash;
+        volatile V value;
+        volatile long expiresAt;
+        byte queue;  // Guarded by the segment lock, like prev and next
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, int hash) {
+            this.key = key;
+            this.hash = hash;
+        }
+    }
+
+    // Intrusive doubly linked list, oldest first
+    private static final class Queue<K, V> {
+        final Node<K, V> head = new Node<>(null, 0);
+        int size;
+
+        Queue() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        Node<K, V> first() {
+            return head.next == head ? null : head.next;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            size++;
+        }
+
+        void remove(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            remove(node);
+            addLast(node);
+        }
+    }
+
+    private static final class Segment<K, V> {
+        final LookupCache<K, V> cache;
+        final Eviction eviction;
+        final ReentrantLock lock = new ReentrantLock();
+        final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();  // Written under the lock
+        final AtomicLong reads = new AtomicLong();
+        final AtomicIntegerArray readHashes = new AtomicIntegerArray(READ_BUFFER);
+        final AtomicReferenceArray<Node<K, V>> readNodes = new AtomicReferenceArray<>(READ_BUFFER);  // Null for a miss
+        long drained;  // Reads applied so far, guarded by the lock
+        final Queue<K, V> window = new Queue<>();
+        final Queue<K, V> probation = new Queue<>();
+        final Queue<K, V> protectedQueue = new Queue<>();
+        final FrequencySketch sketch;
+        final int windowMax;
+        final int mainMax;
+        final int protectedMax;
+
+        Segment(LookupCache<K, V> cache, int capacity, Eviction eviction) {
+            this.cache = cache;
+            this.eviction = eviction;
+            if (eviction == Eviction.LRU) {
+                windowMax = capacity;
+                mainMax = 0;
+                protectedMax = 0;
+                sketch = null;
+            } else {
+                windowMax = Math.max(1, capacity / 100);
+                mainMax = capacity - windowMax;
+                protectedMax = mainMax * 4 / 5;
+                sketch = new FrequencySketch(capacity);
+            }
+        }
+
+        V get(K key, int hash, long now) {
+            Node<K, V> node = map.get(key);
+            if (node == null) {
+                recordRead(hash, null);
+                cache.misses.increment();
+                return null;
+            }
+            if (isExpired(node, now)) {
+                expire(node, now);
+                recordRead(hash, null);
+                cache.misses.increment();
+                return null;
+            }
+            V value = node.value;
+            recordRead(hash, node);
+            cache.hits.increment();
+            return value;
+        }
+
+        private static boolean isExpired(Node<?, ?> node, long now) {
+            long expiresAt = node.expiresAt;
+            return expiresAt != NEVER && now - expiresAt >= 0;
+        }
+
+        // Expiry is rare, so it takes the lock; concurrent lookups of the key remove it once
+        private void expire(Node<K, V> node, long now) {
+            lock.lock();
+            try {
+                if (map.get(node.key) == node && isExpired(node, now)) {
+                    unlink(node);
+                    map.remove(node.key);
+                    cache.expirations.increment();
+                    cache.removalListener.accept(node.key, node.value);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Note an access for the queues and the sketch; the lookup that fills the buffer
+        // drains it unless somebody else holds the lock
+        private void recordRead(int hash, Node<K, V> node) {
+            int slot = (int) reads.getAndIncrement() & (READ_BUFFER - 1);
+            readHashes.lazySet(slot, hash);
+            readNodes.lazySet(slot, node);
+            if (slot == READ_BUFFER - 1 && lock.tryLock()) {
+                try {
+                    drainReads();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        // Under the lock: apply the buffered accesses, at most the last READ_BUFFER of them
+        private void drainReads() {
+            long end = reads.get();
+            for (long read = Math.max(drained, end - READ_BUFFER); read < end; read++) {
+                int slot = (int) read & (READ_BUFFER - 1);
+                if (sketch != null) {
+                    sketch.increment(readHashes.get(slot));
+                }
+                Node<K, V> node = readNodes.getAndSet(slot, null);
+                if (node != null && node.queue != REMOVED) {
+                    onAccess(node);
+                }
+            }
+            drained = end;
+        }
+
+        void put(K key, int hash, V value, long ttlNanos, long now) {
+            lock.lock();
+            try {
+                drainReads();
+                Node<K, V> node = map.get(key);
+                if (node == null) {
+                    node = new Node<>(key, hash);
+                    node.queue = WINDOW;
+                    window.addLast(node);
+                    map.put(key, node);
+                } else {
+                    onAccess(node);
+                }
+                node.expiresAt = ttlNanos == 0 ? NEVER : now + ttlNanos;
+                node.value = value;
+                evictIfNeeded();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void invalidate(K key) {
+            lock.lock();
+            try {
+                Node<K, V> node = map.remove(key);
+                if (node != null) {
+                    unlink(node);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            return map.size();
+        }
+
+        private void onAccess(Node<K, V> node) {
+            switch (node.queue) {
+                case WINDOW -> window.moveToLast(node);
+                case PROTECTED -> protectedQueue.moveToLast(node);
+                default -> {
+                    // Second hit in the main area: promote, demoting the oldest protected entry
+                    probation.remove(node);
+                    node.queue = PROTECTED;
+                    protectedQueue.addLast(node);
+                    if (protectedQueue.size > protectedMax) {
+                        Node<K, V> demoted = protectedQueue.first();
+                        protectedQueue.remove(demoted);
+                        demoted.queue = PROBATION;
+                        probation.addLast(demoted);
+                    }
+                }
+            }
+        }
+
+        private void evictIfNeeded() {
+            if (window.size <= windowMax) {
+                return;
+            }
+            Node<K, V> candidate = window.first();
+            if (eviction == Eviction.LRU) {
+                evict(candidate);
+                return;
+            }
+            window.remove(candidate);
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+            if (probation.size + protectedQueue.size <= mainMax) {
+                return;
+            }
+            Node<K, V> victim = probation.first();
+            if (victim == candidate) {
+                victim = protectedQueue.first();
+            }
+            if (victim == null) {
+                evict(candidate);
+            } else if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+            }
+        }
+
+        private void evict(Node<K, V> node) {
+            unlink(node);
+            map.remove(node.key);
+            cache.evictions.increment();
+            cache.removalListener.accept(node.key, node.value);
+        }
+
+        private void unlink(Node<K, V> node) {
+            switch (node.queue) {
+                case WINDOW -> window.remove(node);
+                case PROBATION -> probation.remove(node);
+                default -> protectedQueue.remove(node);
+            }
+            node.queue = REMOVED;
+        }
+    }
+
+    // Count-min sketch of 4-bit counters, sixteen to a long. Once it has counted ten times the
+    // capacity, every counter is halved, so old popularity fades.
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+        private static final long HALF_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+            table = new long[size];
+            sampleSize = 10 * Math.max(16, capacity);
+        }
+
+        int frequency(int hash) {
+            int min = 15;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int h = rehash(hash, i);
+                min = Math.min(min, (int) (table[h & (table.length - 1)] >>> offset(h)) & 0xf);
+            }
+            return min;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int h = rehash(hash, i);
+                int index = h & (table.length - 1);
+                int offset = offset(h);
+                if (((table[index] >>> offset) & 0xf) < 15) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & HALF_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        private static int rehash(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            return (int) (h ^ (h >>> 32));
+        }
+
+        // Which of the sixteen counters in the long, taken from bits the index does not use
+        private static int offset(int h) {
+            return (h >>> 28) << 2;
+        }
+    }
+}
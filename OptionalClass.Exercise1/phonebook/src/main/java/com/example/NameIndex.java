@@ -0,0 +1,612 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Sorted index of names for type-ahead search, ignoring case.
+//
+// Most names live in a CompactTrie: an immutable, path-compressed trie flattened into a few
+// primitive arrays in depth-first order, so the names below any node form one contiguous
+// range and a subtree is skipped by jumping to its end. New names go to a small concurrent
+// skip list first and are merged into a fresh trie once that delta grows past a fraction of
+// the trie. Queries read both parts and merge the results, never taking a lock.
+class NameIndex {
+
+    private static final char SEPARATOR = '\0';
+    private static final int MIN_DELTA = 2048;
+    private static final int DELTA_FRACTION = 16;  // Merge once the delta is 1/16 of the trie
+
+    // Trie and delta are swapped together, so a query always sees one consistent pair
+    private static final class State {
+        final CompactTrie trie;
+        final ConcurrentSkipListMap<String, String> delta = new ConcurrentSkipListMap<>();
+        final AtomicInteger deltaSize = new AtomicInteger();
+
+        State(CompactTrie trie) {
+            this.trie = trie;
+        }
+    }
+
+    private volatile State state = new State(CompactTrie.build(new String[0]));
+
+    // Writers share the read lock while adding to the current delta, a merge takes the write
+    // lock only to swap in the new state
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantLock mergeLock = new ReentrantLock();
+
+    void add(String name) {
+        State current;
+        swapLock.readLock().lock();
+        try {
+            current = state;
+            addToDelta(current, name);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        mergeIfFull(current);
+    }
+
+    // Add many names at once. A batch that fits into the delta goes there like single names,
+    // a larger one is sorted and merged straight into the trie.
+    void addAll(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        State current = state;
+        if (current.deltaSize.get() + names.size() <= deltaLimit(current)) {
+            swapLock.readLock().lock();
+            try {
+                current = state;
+                for (String name : names) {
+                    addToDelta(current, name);
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+            mergeIfFull(current);
+            return;
+        }
+        String[] batch = names.toArray(new String[0]);
+        Arrays.parallelSort(batch, NameIndex::compare);
+        mergeLock.lock();
+        try {
+            merge(batch);
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    private static int deltaLimit(State current) {
+        return Math.max(MIN_DELTA, current.trie.size() / DELTA_FRACTION);
+    }
+
+    private void mergeIfFull(State current) {
+        if (current.deltaSize.get() > deltaLimit(current)
+                && mergeLock.tryLock()) {  // Otherwise another writer is already merging
+            try {
+                merge(new String[0]);
+            } finally {
+                mergeLock.unlock();
+            }
+        }
+    }
+
+    private static void addToDelta(State current, String name) {
+        if (!current.trie.contains(name) && current.delta.put(key(name), name) == null) {
+            current.deltaSize.incrementAndGet();
+        }
+    }
+
+    // Names starting with the prefix, ignoring case, in index order
+    Stream<String> startingWith(String prefix) {
+        State current = state;
+        String from = fold(prefix);
+        String to = successor(from, from.length());
+        NavigableMap<String, String> range = to == null ? current.delta.tailMap(from, true) : current.delta.subMap(from, to);
+        return merged(current.trie.startingWith(from), range.values().iterator());
+    }
+
+    // Names within maxEdits insertions, deletions or substitutions of the query, ignoring case,
+    // in index order
+    Stream<String> similarTo(String query, int maxEdits) {
+        if (maxEdits < 0) {
+            throw new IllegalArgumentException("maxEdits must not be negative: " + maxEdits);
+        }
+        State current = state;
+        String folded = fold(query);
+        Iterator<String> fromTrie = Spliterators.iterator(current.trie.similarTo(folded, maxEdits));
+        Iterator<String> fromDelta = Spliterators.iterator(new DeltaFuzzySpliterator(current.delta, folded, maxEdits));
+        return merged(fromTrie, fromDelta);
+    }
+
+    // Fold the delta and a sorted batch into a new trie. Writers keep adding to the old delta
+    // while the trie is built; whatever they added in the meantime is carried over into the
+    // new delta. Callers hold the merge lock.
+    private void merge(String[] batch) {
+        State old = state;
+        String[] added = mergeSorted(old.delta.values().toArray(new String[0]), batch);
+        CompactTrie trie = CompactTrie.build(mergeSorted(old.trie.names(), added));
+
+        swapLock.writeLock().lock();
+        try {
+            State next = new State(trie);
+            for (Map.Entry<String, String> entry : old.delta.entrySet()) {
+                if (!trie.contains(entry.getValue())) {
+                    next.delta.put(entry.getKey(), entry.getValue());
+                    next.deltaSize.incrementAndGet();
+                }
+            }
+            state = next;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    // Merge two arrays in index order, keeping one copy of names found in both
+    private static String[] mergeSorted(String[] a, String[] b) {
+        String[] result = new String[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            int order = compare(a[i], b[j]);
+            if (order == 0) {
+                j++;
+            }
+            result[k++] = order <= 0 ? a[i++] : b[j++];
+        }
+        while (i < a.length) {
+            result[k++] = a[i++];
+        }
+        while (j < b.length) {
+            result[k++] = b[j++];
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+
+    // Lazily merge two iterators that are both in index order
+    private static Stream<String> merged(Iterator<String> a, Iterator<String> b) {
+        Iterator<String> iterator = new Iterator<>() {
+            private String nextA = a.hasNext() ? a.next() : null;
+            private String nextB = b.hasNext() ? b.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextA != null || nextB != null;
+            }
+
+            @Override
+            public String next() {
+                String result;
+                if (nextB == null || (nextA != null && compare(nextA, nextB) <= 0)) {
+                    result = nextA;
+                    nextA = a.hasNext() ? a.next() : null;
+                } else {
+                    result = nextB;
+                    nextB = b.hasNext() ? b.next() : null;
+                }
+                return result;
+            }
+        };
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false);
+    }
+
+    static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;  // ASCII fast path
+        }
+        return Character.toLowerCase(c);
+    }
+
+    // Char by char, so a folded name always has the same length as the name
+    static String fold(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static String key(String name) {
+        return fold(name) + SEPARATOR + name;
+    }
+
+    // Index order: case-folded name first, the name itself breaks ties.
+    // Same order as the delta keys, without building them.
+    private static int compare(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        for (int i = 0; i < n; i++) {
+            char x = fold(a.charAt(i));
+            char y = fold(b.charAt(i));
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return a.length() != b.length() ? a.length() - b.length() : a.compareTo(b);
+    }
+
+    // Smallest string greater than every string starting with the first length chars of s,
+    // or null if there is none
+    private static String successor(String s, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            char c = s.charAt(i);
+            if (c != Character.MAX_VALUE) {
+                return s.substring(0, i) + (char) (c + 1);
+            }
+        }
+        return null;
+    }
+
+    // Levenshtein rows for a fuzzy walk: rows[d] holds the edit distances between the first d
+    // chars of the current candidate and every prefix of the query. Only the diagonal band of
+    // 2 * maxEdits + 1 cells can stay within budget, so only those are computed and every value
+    // is capped at maxEdits + 1.
+    static final class EditRows {
+        private final String query;
+        private final int maxEdits;
+        private final int cap;
+        private int[][] rows;
+
+        EditRows(String query, int maxEdits) {
+            this.query = query;
+            this.maxEdits = maxEdits;
+            this.cap = maxEdits + 1;
+            this.rows = new int[16][query.length() + 1];
+            for (int j = 0; j <= query.length(); j++) {
+                rows[0][j] = Math.min(j, cap);
+            }
+        }
+
+        // Fill rows[d] from rows[d - 1] for the candidate char c, returning the smallest value
+        int compute(int d, char c) {
+            if (d >= rows.length) {
+                int[][] grown = Arrays.copyOf(rows, rows.length * 2);
+                for (int i = rows.length; i < grown.length; i++) {
+                    grown[i] = new int[query.length() + 1];
+                }
+                rows = grown;
+            }
+            int m = query.length();
+            int[] previous = rows[d - 1];
+            int[] row = rows[d];
+            int lo = Math.max(1, d - maxEdits);
+            int hi = Math.min(m, d + maxEdits);
+
+            row[0] = Math.min(d, cap);
+            int minimum = row[0];
+            if (lo > 1) {
+                row[lo - 1] = cap;  // Left of the band
+            }
+            for (int j = lo; j <= hi; j++) {
+                int substitution = previous[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+                int value = Math.min(Math.min(substitution, cap), Math.min(previous[j], row[j - 1]) + 1);
+                row[j] = value;
+                minimum = Math.min(minimum, value);
+            }
+            if (hi < m) {
+                row[hi + 1] = cap;  // Right of the band, read by the next row
+            }
+            return minimum;
+        }
+
+        // Edit distance between the first d chars of the candidate and the whole query,
+        // or maxEdits + 1 if it is larger than maxEdits
+        int distance(int d) {
+            return Math.abs(query.length() - d) > maxEdits ? cap : rows[d][query.length()];
+        }
+    }
+
+    // Fuzzy walk over the skip list keys, treating them as an implicit trie: rows of the prefix
+    // shared with the previous key are reused, and a hopeless prefix skips its whole key range
+    private static final class DeltaFuzzySpliterator extends Spliterators.AbstractSpliterator<String> {
+        private final ConcurrentSkipListMap<String, String> delta;
+        private final EditRows rows;
+        private final int maxEdits;
+        private int validRows = 1;  // rows 0..validRows-1 are up to date for previousKey
+        private String previousKey = "";
+        private String cursor = "";  // Next key to look at is the first one >= cursor
+
+        DeltaFuzzySpliterator(ConcurrentSkipListMap<String, String> delta, String query, int maxEdits) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+            this.delta = delta;
+            this.rows = new EditRows(query, maxEdits);
+            this.maxEdits = maxEdits;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (cursor != null) {
+                Map.Entry<String, String> entry = delta.ceilingEntry(cursor);
+                if (entry == null) {
+                    cursor = null;
+                    return false;
+                }
+                String key = entry.getKey();
+                int wordLength = key.indexOf(SEPARATOR);
+
+                int depth = Math.min(validRows - 1, commonPrefix(previousKey, key, wordLength));
+                previousKey = key;
+                boolean pruned = false;
+                while (depth < wordLength) {
+                    int rowMinimum = rows.compute(depth + 1, key.charAt(depth));
+                    depth++;
+                    validRows = depth + 1;
+                    if (rowMinimum > maxEdits) {
+                        // No key starting with these chars can come close enough
+                        cursor = successor(key, depth);
+                        pruned = true;
+                        break;
+                    }
+                }
+                if (pruned) {
+                    continue;
+                }
+                validRows = wordLength + 1;
+                cursor = key + SEPARATOR;  // Smallest string after this key
+                if (rows.distance(wordLength) <= maxEdits) {
+                    action.accept(entry.getValue());
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int commonPrefix(String a, String b, int limit) {
+            int n = Math.min(limit, a.length());
+            int i = 0;
+            while (i < n && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    // Immutable, path-compressed trie over case-folded names, stored in depth-first order.
+    //
+    // Node i is entered through the label chars labels[labelStart[i], labelStart[i] + labelLength[i]),
+    // its subtree is nodes [i, subtreeEnd[i]), and the names below it are
+    // names[namesStart[i], namesStart[subtreeEnd[i]]). Names ending exactly at node i come first
+    // in that range, so there are namesStart[i + 1] - namesStart[i] of them.
+    static final class CompactTrie {
+        private final String[] names;  // In index order
+        private final char[] labels;
+        private final int[] labelStart;
+        private final int[] labelLength;
+        private final int[] subtreeEnd;
+        private final int[] namesStart;  // One extra entry, namesStart[nodeCount] == names.length
+        private final int nodeCount;
+
+        private CompactTrie(String[] names, char[] labels, int[] labelStart, int[] labelLength,
+                            int[] subtreeEnd, int[] namesStart, int nodeCount) {
+            this.names = names;
+            this.labels = labels;
+            this.labelStart = labelStart;
+            this.labelLength = labelLength;
+            this.subtreeEnd = subtreeEnd;
+            this.namesStart = namesStart;
+            this.nodeCount = nodeCount;
+        }
+
+        // Build from names already in index order
+        static CompactTrie build(String[] names) {
+            Builder builder = new Builder(names);
+            builder.node(0, names.length, 0, 0);
+            return builder.finish();
+        }
+
+        int size() {
+            return names.length;
+        }
+
+        String[] names() {
+            return names;
+        }
+
+        boolean contains(String name) {
+            int node = find(fold(name), true);
+            if (node < 0) {
+                return false;
+            }
+            for (int i = namesStart[node]; i < namesStart[node + 1]; i++) {
+                if (names[i].equals(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Iterator<String> startingWith(String foldedPrefix) {
+            int node = find(foldedPrefix, false);
+            if (node < 0) {
+                return List.<String>of().iterator();
+            }
+            return Arrays.asList(names).subList(namesStart[node], namesStart[subtreeEnd[node]]).iterator();
+        }
+
+        Spliterator<String> similarTo(String foldedQuery, int maxEdits) {
+            return new FuzzySpliterator(foldedQuery, maxEdits);
+        }
+
+        // Node whose path starts with the folded chars (or equals them, if exact), or -1
+        private int find(String folded, boolean exact) {
+            if (nodeCount == 0) {
+                return -1;
+            }
+            int node = 0;
+            int matched = 0;
+            int labelOffset = labelLength[0];  // Root has an empty label
+            while (matched < folded.length()) {
+                if (labelOffset < labelLength[node]) {
+                    // Still inside this node's label
+                    if (labels[labelStart[node] + labelOffset] != folded.charAt(matched)) {
+                        return -1;
+                    }
+                    labelOffset++;
+                    matched++;
+                    continue;
+                }
+                int child = firstChild(node);
+                while (child >= 0 && labels[labelStart[child]] != folded.charAt(matched)) {
+                    child = nextSibling(node, child);
+                }
+                if (child < 0) {
+                    return -1;
+                }
+                node = child;
+                labelOffset = 0;
+            }
+            return exact && labelOffset < labelLength[node] ? -1 : node;
+        }
+
+        private int firstChild(int node) {
+            return node + 1 < subtreeEnd[node] ? node + 1 : -1;
+        }
+
+        private int nextSibling(int parent, int child) {
+            int next = subtreeEnd[child];
+            return next < subtreeEnd[parent] ? next : -1;
+        }
+
+        private static final class Builder {
+            private final String[] names;
+            private final StringBuilder labels = new StringBuilder();
+            private final int[] labelStart;
+            private final int[] labelLength;
+            private final int[] subtreeEnd;
+            private final int[] namesStart;
+            private int nodeCount;
+
+            Builder(String[] names) {
+                this.names = names;
+                int capacity = 2 * names.length + 1;  // Upper bound for a path-compressed trie
+                labelStart = new int[capacity];
+                labelLength = new int[capacity];
+                subtreeEnd = new int[capacity];
+                namesStart = new int[capacity + 1];
+            }
+
+            // Names [lo, hi) share their first depth folded chars, this node's label is [from, depth)
+            void node(int lo, int hi, int from, int depth) {
+                int id = nodeCount++;
+                labelStart[id] = labels.length();
+                labelLength[id] = depth - from;
+                for (int d = from; d < depth && lo < hi; d++) {
+                    labels.append(fold(names[lo].charAt(d)));
+                }
+                namesStart[id] = lo;
+
+                int i = lo;
+                while (i < hi && names[i].length() == depth) {
+                    i++;  // Names ending here
+                }
+                while (i < hi) {
+                    char c = fold(names[i].charAt(depth));
+                    int j = i + 1;
+                    while (j < hi && fold(names[j].charAt(depth)) == c) {
+                        j++;
+                    }
+                    // Names are sorted, so the first and last of the group bound its common prefix
+                    node(i, j, depth, commonFoldedPrefix(names[i], names[j - 1]));
+                    i = j;
+                }
+                subtreeEnd[id] = nodeCount;
+            }
+
+            CompactTrie finish() {
+                namesStart[nodeCount] = names.length;
+                return new CompactTrie(names, labels.toString().toCharArray(),
+                        Arrays.copyOf(labelStart, nodeCount), Arrays.copyOf(labelLength, nodeCount),
+                        Arrays.copyOf(subtreeEnd, nodeCount), Arrays.copyOf(namesStart, nodeCount + 1), nodeCount);
+            }
+
+            private static int commonFoldedPrefix(String a, String b) {
+                int n = Math.min(a.length(), b.length());
+                int i = 0;
+                while (i < n && fold(a.charAt(i)) == fold(b.charAt(i))) {
+                    i++;
+                }
+                return i;
+            }
+        }
+
+        // Walks the nodes in order; a node too far from the query jumps to the end of its subtree
+        private final class FuzzySpliterator extends Spliterators.AbstractSpliterator<String> {
+            private final EditRows rows;
+            private final int maxEdits;
+            private int node;
+            private int[] openEnds = new int[16];  // subtreeEnd of each open ancestor
+            private int[] openDepths = new int[16];  // Char depth at the end of each open ancestor
+            private int open;
+            private int pendingName;  // Matches of the current node still to hand out
+            private int pendingEnd;
+
+            FuzzySpliterator(String query, int maxEdits) {
+                super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+                this.rows = new EditRows(query, maxEdits);
+                this.maxEdits = maxEdits;
+            }
+
+            @Override
+            public boolean tryAdvance(Consumer<? super String> action) {
+                while (pendingName == pendingEnd) {
+                    if (!advanceNode()) {
+                        return false;
+                    }
+                }
+                action.accept(names[pendingName++]);
+                return true;
+            }
+
+            private boolean advanceNode() {
+                while (node < nodeCount) {
+                    int current = node;
+                    while (open > 0 && openEnds[open - 1] <= current) {
+                        open--;
+                    }
+                    int depth = open > 0 ? openDepths[open - 1] : 0;
+                    int start = labelStart[current];
+                    boolean pruned = false;
+                    for (int k = 0; k < labelLength[current]; k++) {
+                        if (rows.compute(depth + 1, labels[start + k]) > maxEdits) {
+                            pruned = true;
+                            break;
+                        }
+                        depth++;
+                    }
+                    if (pruned) {
+                        node = subtreeEnd[current];
+                        continue;
+                    }
+                    if (open == openEnds.length) {
+                        openEnds = Arrays.copyOf(openEnds, open * 2);
+                        openDepths = Arrays.copyOf(openDepths, open * 2);
+                    }
+                    openEnds[open] = subtreeEnd[current];
+                    openDepths[open] = depth;
+                    open++;
+                    node = current + 1;
+                    if (rows.distance(depth) <= maxEdits && namesStart[current + 1] > namesStart[current]) {
+                        pendingName = namesStart[current];
+                        pendingEnd = namesStart[current + 1];
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32C;
+
+// Phone book that survives restarts.
+//
+// Every addEntry/addEntries call, and every CSV import through PhoneBookFiles.loadCsv, is
+// appended to a write-ahead log before it becomes visible. A single journal thread does the
+// appending with group commit: all writes that queue up while one fsync is running are
+// written and synced together, then applied in log order, and only then do their callers
+// return. Once the log grows past a threshold, the journal
+// copies the entries, renames the log to phonebook.log.old and starts an empty one. A
+// background thread writes the copy as a snapshot (see PhoneBookFiles) and then deletes the
+// old log, so writers only wait for the copy, never for the snapshot. Recovery loads the
+// snapshot and replays the old log, if it is still there, and then the current one.
+//
+// Log records are: int payloadLength, int CRC32C of the payload, then the payload
+// short nameLength, name (UTF-8), byte numberLength, phone number (UTF-8). A torn record at
+// the end of the log is dropped on recovery.
+//
+// Snapshots keep the holders of a shared number in order and the log is replayed in the
+// order it was applied, so a number resolves to the same oldest holder after a restart.
+public class PersistentPhoneBook extends PhoneBook implements Closeable {
+
+    static final String LOG_FILE = "phonebook.log";
+    static final String OLD_LOG_FILE = "phonebook.log.old";
+    static final String SNAPSHOT_FILE = "phonebook.snapshot";
+    public static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+    private static final long MAX_CHECKPOINT_BYTES = 1L << 30;  // Log is mapped in one piece on recovery
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_BATCH = 4096;
+
+    // A queued write (entries != null) or checkpoint request, completed by the journal thread
+    private record Pending(Map<String, String> entries, CompletableFuture<Void> done) { }
+
+    private static final Pending CLOSE = new Pending(null, null);
+
+    private final Path directory;
+    private final long checkpointBytes;
+    private volatile FileChannel log;  // Replaced by the journal thread on every checkpoint
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Object queueLock = new Object();  // Nothing is queued behind CLOSE
+    private final Thread journal;
+    private CompletableFuture<Void> checkpointing = CompletableFuture.completedFuture(null);  // Journal thread only
+    private boolean closed;  // Guarded by queueLock
+    private volatile IOException failure;
+
+    private PersistentPhoneBook(Path directory, long checkpointBytes) throws IOException {
+        super(Map.of());
+        this.directory = directory;
+        this.checkpointBytes = checkpointBytes;
+        this.log = openLog();
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        this.journal = new Thread(this::runJournal, "phonebook-journal");
+        this.journal.setDaemon(true);
+        this.journal.start();
+    }
+
+    // Open the phone book stored in the directory, creating an empty one if there is none
+    public static PersistentPhoneBook open(Path directory) throws IOException {
+        return open(directory, DEFAULT_CHECKPOINT_BYTES);
+    }
+
+    // Same, writing a snapshot whenever the log grows past checkpointBytes
+    public static PersistentPhoneBook open(Path directory, long checkpointBytes) throws IOException {
+        if (checkpointBytes <= 0 || checkpointBytes > MAX_CHECKPOINT_BYTES) {
+            throw new IllegalArgumentException("checkpointBytes must be between 1 and " + MAX_CHECKPOINT_BYTES);
+        }
+        Files.createDirectories(directory);
+        return new PersistentPhoneBook(directory, checkpointBytes);
+    }
+
+    // Add an entry, returning once it is durable
+    @Override
+    public void addEntry(String name, String phoneNumber) {
+        validate(name, phoneNumber);
+        await(enqueue(Map.of(name, phoneNumber)));
+    }
+
+    // Add many entries as one durable batch
+    @Override
+    public void addEntries(Map<String, String> entries) {
+        entries.forEach(PersistentPhoneBook::validate);
+        if (!entries.isEmpty()) {
+            await(enqueue(Map.copyOf(entries)));
+        }
+    }
+
+    // Same for a CSV import, logged and applied in the order of the map
+    @Override
+    void addEntriesInOrder(Map<String, String> entries) {
+        entries.forEach(PersistentPhoneBook::validate);
+        if (!entries.isEmpty()) {
+            await(enqueue(Collections.unmodifiableMap(new LinkedHashMap<>(entries))));
+        }
+    }
+
+    // Write a snapshot now and start an empty log
+    public void checkpoint() {
+        await(enqueue(null));
+    }
+
+    // Size of the current log in bytes
+    public long logSize() throws IOException {
+        while (true) {
+            FileChannel current = log;
+            try {
+                return current.size();
+            } catch (ClosedChannelException e) {
+                if (log == current) {
+                    throw e;  // Closed with the phone book, not replaced by a checkpoint
+                }
+            }
+        }
+    }
+
+    // Finish all queued writes and a running checkpoint, then stop the journal
+    @Override
+    public void close() throws IOException {
+        synchronized (queueLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(CLOSE);
+        }
+        try {
+            journal.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            log.close();
+        }
+    }
+
+    // The closed check and the add are one step, so a writer cannot slip in behind CLOSE
+    // where the journal would never complete its future
+    private CompletableFuture<Void> enqueue(Map<String, String> entries) {
+        if (failure != null) {
+            throw new UncheckedIOException("Phone book journal failed", failure);
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (queueLock) {
+            if (closed) {
+                throw new IllegalStateException("Phone book is closed");
+            }
+            queue.add(new Pending(entries, done));
+        }
+        return done;
+    }
+
+    private static void await(CompletableFuture<Void> done) {
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private static void validate(String name, String phoneNumber) {
+        if (name == null || PhoneNumbers.toKey(phoneNumber) == PhoneNumbers.NO_KEY) {
+            throw new IllegalArgumentException("Invalid entry: " + name + ", " + phoneNumber);
+        }
+        if (name.length() > 0xFFFF / 3 || phoneNumber.length() > 0xFF / 3) {
+            // Worst case of three UTF-8 bytes per char must fit the record's length fields
+            throw new IllegalArgumentException("Entry too long: " + name);
+        }
+    }
+
+    // Journal thread: write and sync everything that queued up, apply it, repeat
+    private void runJournal() {
+        List<Pending> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        boolean running = true;
+        while (running) {
+            batch.clear();
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;  // Only close() stops the journal
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            buffer.clear();
+            boolean checkpointRequested = false;
+            for (Pending pending : batch) {
+                if (pending == CLOSE) {
+                    running = false;
+                } else if (pending.entries() == null) {
+                    checkpointRequested = true;
+                } else {
+                    for (Map.Entry<String, String> entry : pending.entries().entrySet()) {
+                        buffer = encode(buffer, entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            IOException error = failure;
+            if (error == null) {
+                try {
+                    buffer.flip();
+                    if (buffer.hasRemaining()) {
+                        while (buffer.hasRemaining()) {
+                            log.write(buffer, log.size());
+                        }
+                        log.force(false);
+                    }
+                } catch (IOException e) {
+                    error = e;
+                    failure = e;
+                }
+            }
+
+            // Durable now, so apply in log order and release the writers
+            for (Pending pending : batch) {
+                if (pending == CLOSE || pending.entries() == null) {
+                    continue;
+                }
+                if (error != null) {
+                    pending.done().completeExceptionally(new UncheckedIOException("Write to journal failed", error));
+                    continue;
+                }
+                try {
+                    apply(pending.entries());
+                    pending.done().complete(null);
+                } catch (RuntimeException e) {
+                    pending.done().completeExceptionally(e);
+                }
+            }
+
+            // A full log starts a checkpoint unless one is still running; a requested one
+            // waits for that first, as there is only one old log
+            CompletableFuture<Void> checkpoint = null;
+            if (error == null) {
+                try {
+                    if (checkpointRequested || (checkpointing.isDone() && log.size() >= checkpointBytes)) {
+                        checkpointing.exceptionally(e -> null).join();
+                        error = failure;
+                        if (error == null) {
+                            checkpoint = startCheckpoint();
+                            checkpointing = checkpoint;
+                        }
+                    }
+                } catch (IOException e) {
+                    error = e;
+                    failure = e;
+                }
+            }
+            for (Pending pending : batch) {
+                if (pending != CLOSE && pending.entries() == null) {
+                    if (error != null) {
+                        pending.done().completeExceptionally(new UncheckedIOException("Checkpoint failed", error));
+                    } else {
+                        checkpoint.whenComplete((ignored, e) -> {
+                            if (e != null) {
+                                pending.done().completeExceptionally(e);
+                            } else {
+                                pending.done().complete(null);
+                            }
+                        });
+                    }
+                }
+            }
+        }
+
+        checkpointing.exceptionally(e -> null).join();
+    }
+
+    // Only the journal thread applies entries, so the phone book always matches the log
+    private void apply(Map<String, String> entries) {
+        if (entries.size() == 1) {
+            Map.Entry<String, String> entry = entries.entrySet().iterator().next();
+            super.addEntry(entry.getKey(), entry.getValue());
+        } else {
+            super.addEntriesInOrder(entries);  // Holders of a shared number in log order, as replay adds them
+        }
+    }
+
+    // Only the journal thread applies entries, so the copy matches the log up to its end.
+    // After the rename, the copy is exactly the snapshot plus the old log. A crash before the
+    // old log is deleted just replays entries that are already in the new snapshot.
+    private CompletableFuture<Void> startCheckpoint() throws IOException {
+        Map<String, String> entries = getPhoneBookEntriesInHolderOrder();
+        FileChannel oldLog = log;
+        Files.move(directory.resolve(LOG_FILE), directory.resolve(OLD_LOG_FILE), StandardCopyOption.ATOMIC_MOVE);
+        log = openLog();
+        oldLog.close();
+        return CompletableFuture.runAsync(() -> {
+            try {
+                PhoneBookFiles.writeSnapshot(entries, directory.resolve(SNAPSHOT_FILE));
+                Files.delete(directory.resolve(OLD_LOG_FILE));
+            } catch (IOException e) {
+                failure = e;
+                throw new UncheckedIOException("Checkpoint failed", e);
+            }
+        }, task -> {
+            Thread writer = new Thread(task, "phonebook-checkpoint");
+            writer.setDaemon(true);
+            writer.start();
+        });
+    }
+
+    private FileChannel openLog() throws IOException {
+        return FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void recover() throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            super.addEntriesInOrder(PhoneBookFiles.readSnapshot(snapshot));
+        }
+        Path oldLog = directory.resolve(OLD_LOG_FILE);
+        if (Files.exists(oldLog)) {
+            // A checkpoint did not finish: its entries come before the current log, and the
+            // snapshot is written now so that the next checkpoint can use the old log again
+            try (FileChannel channel = FileChannel.open(oldLog, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                replay(channel);
+            }
+            replay(log);
+            PhoneBookFiles.writeSnapshot(getPhoneBookEntriesInHolderOrder(), snapshot);
+            Files.delete(oldLog);
+            log.truncate(0);
+            log.force(true);
+            return;
+        }
+        replay(log);
+    }
+
+    // Apply every intact record of a log, cutting off a torn one at its end
+    private void replay(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Log too large to recover: " + size + " bytes");
+        }
+        MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        CRC32C crc = new CRC32C();
+        byte[] scratch = new byte[0xFFFF];
+        long validEnd = 0;
+        while (records.remaining() >= HEADER_BYTES) {
+            int length = records.getInt();
+            int checksum = records.getInt();
+            if (length < 4 || length > records.remaining()) {
+                break;  // Torn write at the end of the log
+            }
+            ByteBuffer payload = records.slice(records.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            int nameLength = Short.toUnsignedInt(payload.getShort());
+            payload.get(scratch, 0, nameLength);
+            String name = new String(scratch, 0, nameLength, StandardCharsets.UTF_8);
+            int numberLength = Byte.toUnsignedInt(payload.get());
+            payload.get(scratch, 0, numberLength);
+            super.addEntry(name, new String(scratch, 0, numberLength, StandardCharsets.UTF_8));
+            records.position(records.position() + length);
+            validEnd = records.position();
+        }
+        if (validEnd < size) {
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+    }
+
+    private static ByteBuffer encode(ByteBuffer buffer, String name, String phoneNumber) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] numberBytes = phoneNumber.getBytes(StandardCharsets.UTF_8);
+        int length = 2 + nameBytes.length + 1 + numberBytes.length;
+        if (buffer.remaining() < HEADER_BYTES + length) {
+            buffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + HEADER_BYTES + length))
+                    .put(buffer.flip());
+        }
+        int start = buffer.position();
+        buffer.putInt(length).putInt(0)
+                .putShort((short) nameBytes.length).put(nameBytes)
+                .put((byte) numberBytes.length).put(numberBytes);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), start + HEADER_BYTES, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        return buffer;
+    }
+}
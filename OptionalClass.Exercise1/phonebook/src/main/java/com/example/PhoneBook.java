@@ -1,49 +1,275 @@
 package com.example;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
-public class PhoneBook {
+// Thread-safe phone book. Lookups rarely block: names live in a concurrent map read under
+// the optimistic stamp of their striped lock, phone numbers in a PhoneNumberIndex read the
+// same way. Writes are serialized per name through the striped locks, and the index locks
+// the affected numbers itself, so writers touching unrelated entries proceed in parallel
+// while an update of the forward and reverse index is never interleaved with another write
+// to the same name or number.
+//
+// Both indexes change atomically: the new number is put into the forward map while the
+// index still holds the old and new number's segments, and the name's stripe stays write
+// locked until both are done. A lookup that sees a name's new number therefore finds the
+// name under that number, and a lookup that finds the name under a number sees that number.
+//
+// Phone numbers are normalized before they are compared (see PhoneNumbers), so
+// "016/161616" and "016 16 16 16" are the same number. The number is returned as it was
+// entered, the reverse index only keeps its packed long key.
+public class PhoneBook implements PhoneBookRepository {
 
-    private static final HashMap<String, String> PHONE_NUMBERS = new HashMap<String, String>() {
-        {
-            put("Ted Striker", "5551212");
-            put("Roger Murdock", "3879812");
-            put("Elaine Dickinson", "8675309");
-            put("Jos de Vos", "016/161616");
-        }
-    };
+    private static final Map<String, String> PHONE_NUMBERS = Map.of(
+            "Ted Striker", "5551212",
+            "Roger Murdock", "3879812",
+            "Elaine Dickinson", "8675309",
+            "Jos de Vos", "016/161616"
+    );
+
+    private static final int LOCK_STRIPES = 64;  // Power of two, see stripe()
+    private static final int PARALLEL_BATCH = 10_000;  // Batch updates and lookups go parallel from here on
+
+    // Forward index: name -> phone number
+    private final ConcurrentHashMap<String, String> phoneBookEntries = new ConcurrentHashMap<>();
+
+    // Reverse index: phone number key -> names holding that number, oldest holder first.
+    // A number shared by several names resolves to the name that has held it the longest;
+    // when that name moves to another number, the next-oldest holder takes over.
+    private final PhoneNumberIndex phoneNumberIndex = new PhoneNumberIndex();
+
+    // Sorted, case-folded names for prefix and fuzzy search
+    private final NameIndex nameIndex = new NameIndex();
+
+    // Writers take the name lock before the index locks any number, which rules out
+    // deadlocks between concurrent addEntry calls. Forward lookups validate against the same
+    // locks, so they never see a number the reverse index does not have yet.
+    private final StampedLock[] nameLocks = newLocks();
+
+    // Default constructor, starts with the sample entries
+    PhoneBook() {
+        this(PHONE_NUMBERS);
+    }
 
-    private HashMap<String, String> phoneBookEntries = PHONE_NUMBERS;
+    // Start with the given entries
+    PhoneBook(Map<String, String> entries) {
+        putAll(entries);
+    }
 
-    // Default constructor
-    PhoneBook() { }
+    // Get the phone book entries (read-only, all updates must go through addEntry)
+    public Map<String, String> getPhoneBookEntries() {
+        return Collections.unmodifiableMap(phoneBookEntries);
+    }
 
-    // Get the phone book entries
-    public HashMap<String, String> getPhoneBookEntries() {
-        return phoneBookEntries;
+    // All entries, with the names sharing a phone number in holder order, oldest first, so
+    // that adding them again through addEntriesInOrder gives every number the same holders
+    Map<String, String> getPhoneBookEntriesInHolderOrder() {
+        Map<String, String> ordered = new LinkedHashMap<>(phoneBookEntries.size() * 4 / 3 + 1);
+        phoneBookEntries.forEach((name, phoneNumber) -> {
+            if (ordered.containsKey(name)) {
+                return;  // Came with an older holder of its number
+            }
+            for (String holder : phoneNumberIndex.holders(PhoneNumbers.toKey(phoneNumber))) {
+                String holderNumber = phoneNumberOf(holder);
+                if (holderNumber != null) {
+                    ordered.putIfAbsent(holder, holderNumber);
+                }
+            }
+            ordered.putIfAbsent(name, phoneNumber);  // Moved away by a concurrent write
+        });
+        return ordered;
     }
 
     // Find phone number by name
+    @Override
     public Optional<String> findPhoneNumberByName(String name) {
-        // Look up the name in the phoneBookEntries map and wrap it in an Optional
-        return Optional.ofNullable(phoneBookEntries.get(name));
+        // Look up the name in the phoneBookEntries map and wrap it in an Optional. A
+        // ConcurrentHashMap rejects null keys, but no entry has a null name.
+        return name == null ? Optional.empty() : Optional.ofNullable(phoneNumberOf(name));
     }
 
     // Find name by phone number
+    @Override
     public Optional<String> findNameByPhoneNumber(String phoneNumber) {
-        // Iterate over the map entries to find a match
-        for (Map.Entry<String, String> entry : phoneBookEntries.entrySet()) {
-            if (entry.getValue().equals(phoneNumber)) {
-                return Optional.of(entry.getKey());  // Return the name if found
+        // Constant time lookup through the reverse index instead of scanning every entry
+        return Optional.ofNullable(phoneNumberIndex.firstHolder(PhoneNumbers.toKey(phoneNumber)));
+    }
+
+    // Same lookups without an Optional: straight from the map and the reverse index, so a hit
+    // or a miss allocates nothing. The ifFound defaults build on these.
+    @Override
+    public String findPhoneNumberByNameOrElse(String name, String other) {
+        String phoneNumber = name == null ? null : phoneNumberOf(name);
+        return phoneNumber != null ? phoneNumber : other;
+    }
+
+    @Override
+    public String findNameByPhoneNumberOrElse(String phoneNumber, String other) {
+        String name = phoneNumberIndex.firstHolder(PhoneNumbers.toKey(phoneNumber));
+        return name != null ? name : other;
+    }
+
+    // Batch lookup by name, filling results[i] with the number or null for a miss. Nothing
+    // is allocated per key, and large batches are split across the common pool.
+    @Override
+    public void findPhoneNumbersByNames(String[] names, String[] results) {
+        forEachChunk(names, results, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                String name = names[i];
+                results[i] = name == null ? null : phoneNumberOf(name);
             }
-        }
-        // Return an empty Optional if no match is found
-        return Optional.empty();
+        });
+    }
+
+    // Batch lookup by phone number, filling results[i] with the oldest holder or null for a miss
+    @Override
+    public void findNamesByPhoneNumbers(String[] phoneNumbers, String[] results) {
+        forEachChunk(phoneNumbers, results, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                results[i] = phoneNumberIndex.firstHolder(PhoneNumbers.toKey(phoneNumbers[i]));
+            }
+        });
+    }
+
+    // Find names starting with the given prefix, ignoring case, in alphabetical order.
+    // The stream is lazy, so only the first limit matches are ever looked at.
+    public Stream<String> findNamesByPrefix(String prefix, int limit) {
+        return nameIndex.startingWith(prefix).limit(limit);
+    }
+
+    // Find names that are at most maxEdits typos (inserted, deleted or replaced characters)
+    // away from the given name, ignoring case, in alphabetical order
+    public Stream<String> findNamesSimilarTo(String name, int maxEdits, int limit) {
+        return nameIndex.similarTo(name, maxEdits).limit(limit);
     }
 
     // Add an entry to the phone book
+    @Override
     public void addEntry(String name, String phoneNumber) {
-        phoneBookEntries.put(name, phoneNumber);
+        if (put(name, phoneNumber)) {
+            nameIndex.add(name);
+        }
+    }
+
+    // Add many entries at once; large batches are applied in parallel, and new names are
+    // merged into the search index in one go
+    @Override
+    public void addEntries(Map<String, String> entries) {
+        putAll(entries);
+    }
+
+    // Add many entries in the iteration order of the map, as far as it matters: names that
+    // share a phone number become its holders in that order. Different numbers are still
+    // filled in parallel for large batches.
+    void addEntriesInOrder(Map<String, String> entries) {
+        if (entries.size() < PARALLEL_BATCH) {
+            List<String> newNames = new ArrayList<>();
+            entries.forEach((name, phoneNumber) -> {
+                if (put(name, phoneNumber)) {
+                    newNames.add(name);
+                }
+            });
+            nameIndex.addAll(newNames);
+            return;
+        }
+        Map<Long, List<Map.Entry<String, String>>> byNumber = entries.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> PhoneNumbers.toKey(entry.getValue())));
+        List<String> newNames = byNumber.values().parallelStream()
+                .flatMap(holders -> holders.stream()  // One number's holders in order
+                        .filter(entry -> put(entry.getKey(), entry.getValue()))
+                        .map(Map.Entry::getKey))
+                .collect(Collectors.toList());
+        nameIndex.addAll(newNames);
+    }
+
+    private void putAll(Map<String, String> entries) {
+        Stream<Map.Entry<String, String>> stream = entries.size() >= PARALLEL_BATCH
+                ? entries.entrySet().parallelStream()
+                : entries.entrySet().stream();
+        List<String> newNames = stream
+                .filter(entry -> put(entry.getKey(), entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        nameIndex.addAll(newNames);
+    }
+
+    // Update both lookup indexes, returning true if the name was not in the phone book yet
+    private boolean put(String name, String phoneNumber) {
+        Objects.requireNonNull(name, "name");
+        long key = PhoneNumbers.toKey(phoneNumber);
+        if (key == PhoneNumbers.NO_KEY) {
+            throw new IllegalArgumentException("Invalid phone number: " + phoneNumber);
+        }
+
+        StampedLock nameLock = nameLocks[stripe(name)];
+        long stamp = nameLock.writeLock();
+        try {
+            // Holding the name lock, nobody else can change this name's current number
+            String previousNumber = phoneBookEntries.get(name);
+            long previousKey = PhoneNumbers.toKey(previousNumber);
+            if (previousKey != key) {
+                phoneNumberIndex.move(name, previousKey, key, () -> phoneBookEntries.put(name, phoneNumber));
+            } else {
+                // Same number in another format keeps the name's position among the holders
+                phoneBookEntries.put(name, phoneNumber);
+            }
+            return previousNumber == null;
+        } finally {
+            nameLock.unlockWrite(stamp);
+        }
+    }
+
+    // Current number of the name, or null. Falls back to the read lock if a writer
+    // interfered, which waits for a move to reach both indexes.
+    private String phoneNumberOf(String name) {
+        StampedLock nameLock = nameLocks[stripe(name)];
+        long stamp = nameLock.tryOptimisticRead();
+        String phoneNumber = phoneBookEntries.get(name);
+        if (!nameLock.validate(stamp)) {
+            stamp = nameLock.readLock();
+            try {
+                phoneNumber = phoneBookEntries.get(name);
+            } finally {
+                nameLock.unlockRead(stamp);
+            }
+        }
+        return phoneNumber;
+    }
+
+    private interface Chunk {
+        void lookup(int from, int to);
+    }
+
+    // Run the lookup over [0, keys.length) in PARALLEL_BATCH sized chunks, in parallel if
+    // there is more than one
+    private static void forEachChunk(String[] keys, String[] results, Chunk chunk) {
+        if (results.length < keys.length) {
+            throw new IllegalArgumentException("Result array holds " + results.length + " of " + keys.length + " results");
+        }
+        int chunks = (keys.length + PARALLEL_BATCH - 1) / PARALLEL_BATCH;
+        if (chunks <= 1) {
+            chunk.lookup(0, keys.length);
+            return;
+        }
+        IntStream.range(0, chunks).parallel()
+                .forEach(c -> chunk.lookup(c * PARALLEL_BATCH, Math.min(keys.length, (c + 1) * PARALLEL_BATCH)));
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    private static StampedLock[] newLocks() {
+        StampedLock[] locks = new StampedLock[LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new StampedLock();
+        }
+        return locks;
     }
 
     // Override toString method to return a readable string for PhoneBook object
@@ -53,4 +279,4 @@ public class PhoneBook {
                 "phoneBookEntries=" + phoneBookEntries +
                 '}';
     }
-}
\ No newline at end of file
+}
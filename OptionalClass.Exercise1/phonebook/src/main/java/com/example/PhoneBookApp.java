@@ -33,8 +33,12 @@ public class PhoneBookApp {
                     String newName = scanner.nextLine();
                     System.out.print("Enter the phone number: ");
                     String newPhone = scanner.nextLine();
-                    phoneBook.addEntry(newName, newPhone);
-                    System.out.println("New entry added!");
+                    try {
+                        phoneBook.addEntry(newName, newPhone);
+                        System.out.println("New entry added!");
+                    } catch (IllegalArgumentException e) {
+                        System.out.println(e.getMessage());
+                    }
                     break;
 
                 case 2:
@@ -0,0 +1,294 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+// Bulk import and export of phone book entries.
+//
+// CSV files hold one "name,phoneNumber" entry per line (UTF-8, split at the last comma, lines
+// starting with '#' are skipped). They are memory-mapped in chunks that end on line breaks and
+// parsed in parallel. When a name appears more than once, the last line wins. Names that share
+// a phone number become its holders in file order, as if the lines were added one by one, so
+// loading the same file always gives the same oldest holder. The whole file is parsed and
+// checked before the first entry is added, so a bad line leaves the phone book as it was.
+//
+// Snapshots are a compact binary dump of a phone book, written to a temporary file and moved
+// into place, so a reader never sees a half-written snapshot. Names that share a phone number
+// are written oldest holder first and loaded back in that order, so a number resolves to the
+// same name after a round trip. Layout (big-endian):
+//
+//   segment*   int entryCount, then per entry: short nameLength, name (UTF-8),
+//              byte numberLength, phone number (UTF-8)
+//   table      long offset of every segment, then the offset where the table starts
+//   trailer    int segmentCount, int MAGIC
+//
+// The segment table lets a loader map and decode all segments in parallel.
+public final class PhoneBookFiles {
+
+    static final int MAGIC = 0x50425331;  // "PBS1"
+    private static final int TRAILER_BYTES = 8;
+    private static final int SEGMENT_ENTRIES = 65_536;
+    private static final long MIN_CHUNK = 1 << 20;
+    private static final long MAX_CHUNK = 1 << 28;  // Well below the 2 GB limit of a mapping
+
+    private PhoneBookFiles() { }
+
+    // Load every entry of a CSV file into the phone book, returning the number of names read
+    public static int loadCsv(PhoneBook phoneBook, Path csv) throws IOException {
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            List<Map<String, String>> chunks = parallelMap(bounds.length - 1,
+                    chunk -> parseCsvChunk(channel, bounds[chunk], bounds[chunk + 1]));
+            Map<String, String> entries = inOrder(chunks);
+            phoneBook.addEntriesInOrder(entries);
+            return entries.size();
+        }
+    }
+
+    // Write all entries of the phone book to a snapshot file, replacing it atomically
+    public static void writeSnapshot(PhoneBook phoneBook, Path snapshot) throws IOException {
+        writeSnapshot(phoneBook.getPhoneBookEntriesInHolderOrder(), snapshot);
+    }
+
+    // Same for entries taken from a phone book earlier, in holder order
+    static void writeSnapshot(Map<String, String> entries, Path snapshot) throws IOException {
+        Path absolute = snapshot.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeSnapshot(entries, channel);
+                channel.force(true);
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Load every entry of a snapshot file into the phone book, returning the number of names read
+    public static int loadSnapshot(PhoneBook phoneBook, Path snapshot) throws IOException {
+        Map<String, String> entries = readSnapshot(snapshot);
+        phoneBook.addEntriesInOrder(entries);
+        return entries.size();
+    }
+
+    // Read every entry of a snapshot file, in the order they were written
+    static Map<String, String> readSnapshot(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TRAILER_BYTES) {
+                throw new IOException("Not a phone book snapshot: " + snapshot);
+            }
+            ByteBuffer trailer = readFully(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            int segmentCount = trailer.getInt();
+            if (trailer.getInt() != MAGIC || segmentCount < 0) {
+                throw new IOException("Not a phone book snapshot: " + snapshot);
+            }
+            long tableStart = size - TRAILER_BYTES - 8L * (segmentCount + 1);
+            ByteBuffer table = readFully(channel, tableStart, 8 * (segmentCount + 1));
+            long[] offsets = new long[segmentCount + 1];
+            for (int i = 0; i <= segmentCount; i++) {
+                offsets[i] = table.getLong();
+            }
+            List<Map<String, String>> segments = parallelMap(segmentCount,
+                    segment -> readSegment(channel, offsets[segment], offsets[segment + 1]));
+            return inOrder(segments);
+        }
+    }
+
+    static void writeSnapshot(Map<String, String> entries, FileChannel channel) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        ByteBuffer segment = ByteBuffer.allocate(1 << 20).putInt(0);  // Count is filled in on flush
+        int inSegment = 0;
+        long position = 0;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] number = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            if (name.length > 0xFFFF || number.length > 0xFF) {
+                throw new IllegalArgumentException("Entry too long for a snapshot: " + entry.getKey());
+            }
+            int needed = 2 + name.length + 1 + number.length;
+            if (segment.remaining() < needed) {
+                segment = ByteBuffer.allocate(Math.max(segment.capacity() * 2, segment.position() + needed))
+                        .put(segment.flip());
+            }
+            segment.putShort((short) name.length).put(name).put((byte) number.length).put(number);
+            if (++inSegment == SEGMENT_ENTRIES) {
+                offsets.add(position);
+                position += writeSegment(segment, inSegment, channel, position);
+                inSegment = 0;
+            }
+        }
+        if (inSegment > 0) {
+            offsets.add(position);
+            position += writeSegment(segment, inSegment, channel, position);
+        }
+
+        offsets.add(position);  // Where the table starts, closes the last segment
+        ByteBuffer table = ByteBuffer.allocate(8 * offsets.size() + TRAILER_BYTES);
+        offsets.forEach(table::putLong);
+        table.putInt(offsets.size() - 1).putInt(MAGIC).flip();
+        writeFully(table, channel, position);
+    }
+
+    // Write a segment and reset the buffer for the next one, returning the bytes written
+    private static long writeSegment(ByteBuffer segment, int count, FileChannel channel, long position) throws IOException {
+        segment.putInt(0, count).flip();
+        long written = segment.remaining();
+        writeFully(segment, channel, position);
+        segment.clear().putInt(0);
+        return written;
+    }
+
+    private static void writeFully(ByteBuffer buffer, FileChannel channel, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static Map<String, String> readSegment(FileChannel channel, long start, long end) {
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            int count = buffer.getInt();
+            Map<String, String> entries = new LinkedHashMap<>(count * 4 / 3 + 1);
+            byte[] scratch = new byte[0xFFFF];
+            for (int i = 0; i < count; i++) {
+                int nameLength = Short.toUnsignedInt(buffer.getShort());
+                buffer.get(scratch, 0, nameLength);
+                String name = new String(scratch, 0, nameLength, StandardCharsets.UTF_8);
+                int numberLength = Byte.toUnsignedInt(buffer.get());
+                buffer.get(scratch, 0, numberLength);
+                entries.put(name, new String(scratch, 0, numberLength, StandardCharsets.UTF_8));
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Split the file into chunks of similar size that each start at the beginning of a line
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int processors = Runtime.getRuntime().availableProcessors();
+        long chunkSize = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / (4L * processors) + 1));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long position = chunkSize;
+        while (position < size) {
+            long lineStart = nextLineStart(channel, position, size);
+            if (lineStart >= size) {
+                break;
+            }
+            bounds.add(lineStart);
+            position = lineStart + chunkSize;
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static Map<String, String> parseCsvChunk(FileChannel channel, long start, long end) {
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            Map<String, String> entries = new LinkedHashMap<>();  // In the order the entries take effect
+            byte[] line = new byte[256];
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                int lastComma = -1;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    if (buffer.get(lineEnd) == ',') {
+                        lastComma = lineEnd;
+                    }
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                int length = contentEnd - lineStart;
+                if (length > 0 && buffer.get(lineStart) != '#') {
+                    if (lastComma < 0) {
+                        throw new IllegalArgumentException("Malformed CSV line at byte " + (start + lineStart));
+                    }
+                    if (line.length < length) {
+                        line = new byte[Math.max(length, line.length * 2)];
+                    }
+                    buffer.get(lineStart, line, 0, length);
+                    int comma = lastComma - lineStart;
+                    String name = new String(line, 0, comma, StandardCharsets.UTF_8).trim();
+                    String number = new String(line, comma + 1, length - comma - 1, StandardCharsets.UTF_8).trim();
+                    if (PhoneNumbers.toKey(number) == PhoneNumbers.NO_KEY) {
+                        throw new IllegalArgumentException("Invalid phone number at byte " + (start + lineStart) + ": " + number);
+                    }
+                    putInFileOrder(entries, name, number);
+                }
+                lineStart = lineEnd + 1;
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Chunks are parsed in parallel, then combined in file order so later entries win
+    private static Map<String, String> inOrder(List<Map<String, String>> chunks) {
+        int total = chunks.stream().mapToInt(Map::size).sum();
+        Map<String, String> entries = new LinkedHashMap<>(total * 4 / 3 + 1);
+        chunks.forEach(chunk -> chunk.forEach((name, number) -> putInFileOrder(entries, name, number)));
+        return entries;
+    }
+
+    // A name that moves to another number goes to the end, like a holder joining that number.
+    // The same number in another format keeps its place, as it does in PhoneBook.
+    private static void putInFileOrder(Map<String, String> entries, String name, String number) {
+        String previous = entries.get(name);
+        if (previous != null && PhoneNumbers.toKey(previous) != PhoneNumbers.toKey(number)) {
+            entries.remove(name);
+        }
+        entries.put(name, number);
+    }
+
+    private static List<Map<String, String>> parallelMap(int count, IntFunction<Map<String, String>> task) {
+        return IntStream.range(0, count).parallel().mapToObj(task).toList();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+}
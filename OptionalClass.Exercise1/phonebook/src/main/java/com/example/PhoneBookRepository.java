@@ -0,0 +1,74 @@
+package com.example;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Lookups and updates shared by the in-memory phone book and the database-backed ones
+public interface PhoneBookRepository {
+
+    // Find phone number by name
+    Optional<String> findPhoneNumberByName(String name);
+
+    // Find name by phone number; a number shared by several names resolves to its oldest holder
+    Optional<String> findNameByPhoneNumber(String phoneNumber);
+
+    // Phone number of name, or other if it is not in the phone book. Hot paths use this and
+    // the ifFound lookups below, which implementations can answer without wrapping the result.
+    default String findPhoneNumberByNameOrElse(String name, String other) {
+        return findPhoneNumberByName(name).orElse(other);
+    }
+
+    // Name holding phoneNumber, or other if nobody holds it
+    default String findNameByPhoneNumberOrElse(String phoneNumber, String other) {
+        return findNameByPhoneNumber(phoneNumber).orElse(other);
+    }
+
+    // Pass the phone number of name to action if it is in the phone book; returns whether it was
+    default boolean ifPhoneNumberFound(String name, Consumer<? super String> action) {
+        String phoneNumber = findPhoneNumberByNameOrElse(name, null);
+        if (phoneNumber == null) {
+            return false;
+        }
+        action.accept(phoneNumber);
+        return true;
+    }
+
+    // Pass the name holding phoneNumber to action if anybody holds it; returns whether somebody did
+    default boolean ifNameFound(String phoneNumber, Consumer<? super String> action) {
+        String name = findNameByPhoneNumberOrElse(phoneNumber, null);
+        if (name == null) {
+            return false;
+        }
+        action.accept(name);
+        return true;
+    }
+
+    // Batch lookup: results[i] = phone number of names[i], or null if it is not in the phone book
+    default void findPhoneNumbersByNames(String[] names, String[] results) {
+        checkBatch(names, results);
+        for (int i = 0; i < names.length; i++) {
+            results[i] = findPhoneNumberByName(names[i]).orElse(null);
+        }
+    }
+
+    // Batch lookup: results[i] = name holding phoneNumbers[i], or null if nobody holds it
+    default void findNamesByPhoneNumbers(String[] phoneNumbers, String[] results) {
+        checkBatch(phoneNumbers, results);
+        for (int i = 0; i < phoneNumbers.length; i++) {
+            results[i] = findNameByPhoneNumber(phoneNumbers[i]).orElse(null);
+        }
+    }
+
+    // Add an entry, replacing the number of a name that is already present
+    void addEntry(String name, String phoneNumber);
+
+    // Add many entries at once
+    void addEntries(Map<String, String> entries);
+
+    private static void checkBatch(String[] keys, String[] results) {
+        if (results.length < keys.length) {
+            throw new IllegalArgumentException("Result array holds " + results.length + " of " + keys.length + " results");
+        }
+    }
+}
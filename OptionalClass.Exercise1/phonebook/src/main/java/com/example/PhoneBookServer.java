@@ -0,0 +1,176 @@
+package com.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import io.javalin.Javalin;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// HTTP front end for a phone book.
+//
+//   GET  /entries?name=...          -> {"name": ..., "phoneNumber": ...} or 404
+//   GET  /entries?phoneNumber=...   -> {"name": ..., "phoneNumber": ...} or 404
+//   POST /entries                   <- {"name": ..., "phoneNumber": ...}, 204
+//   POST /entries/bulk              <- {"<name>": "<phoneNumber>", ...}, 200 {"added": count}
+//
+// Phone numbers go in the query string rather than the path because they may contain '/'.
+// Requests are handled on virtual threads, so a lookup blocked on a database-backed phone
+// book costs no platform thread. JSON is read and written with Jackson's streaming API:
+// the payloads are flat, so there is no need for databind and its reflective object mapping.
+public class PhoneBookServer {
+
+    public static final int DEFAULT_PORT = 7070;
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String JSON_TYPE = "application/json";
+
+    private final PhoneBookRepository phoneBook;
+    private final Javalin app;
+
+    public PhoneBookServer(PhoneBookRepository phoneBook) {
+        this.phoneBook = phoneBook;
+        this.app = Javalin.create(config -> {
+            config.useVirtualThreads = true;
+            config.showJavalinBanner = false;
+        });
+        app.get("/entries", this::find);
+        app.post("/entries", this::add);
+        app.post("/entries/bulk", this::addBulk);
+        app.exception(IllegalArgumentException.class, (e, ctx) -> error(ctx, HttpStatus.BAD_REQUEST, e.getMessage()));
+        app.exception(BadRequestResponse.class, (e, ctx) -> error(ctx, HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    // Start listening, port 0 picks a free port
+    public PhoneBookServer start(int port) {
+        app.start(port);
+        return this;
+    }
+
+    // The port the server listens on
+    public int port() {
+        return app.port();
+    }
+
+    public void stop() {
+        app.stop();
+    }
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        new PhoneBookServer(new PhoneBook()).start(port);
+        System.out.println("PhoneBook server listening on port " + port);
+    }
+
+    private void find(Context ctx) {
+        String name = ctx.queryParam("name");
+        String phoneNumber = ctx.queryParam("phoneNumber");
+        if ((name == null) == (phoneNumber == null)) {
+            throw new BadRequestResponse("Give either a name or a phoneNumber");
+        }
+        Optional<String> found = name != null
+                ? phoneBook.findPhoneNumberByName(name).map(number -> entry(name, number))
+                : phoneBook.findNameByPhoneNumber(phoneNumber).map(holder -> entry(holder, phoneNumber));
+        if (found.isEmpty()) {
+            error(ctx, HttpStatus.NOT_FOUND, name != null ? "Name not found" : "Phone number not found");
+            return;
+        }
+        ctx.contentType(JSON_TYPE).result(found.get());
+    }
+
+    private void add(Context ctx) throws IOException {
+        String name = null;
+        String phoneNumber = null;
+        try (JsonParser parser = JSON.createParser(ctx.bodyInputStream())) {
+            expectObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name" -> name = text(parser);
+                    case "phoneNumber" -> phoneNumber = text(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new BadRequestResponse("Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (name == null || phoneNumber == null) {
+            throw new BadRequestResponse("Both name and phoneNumber are required");
+        }
+        phoneBook.addEntry(name, phoneNumber);
+        ctx.status(HttpStatus.NO_CONTENT);
+    }
+
+    private void addBulk(Context ctx) throws IOException {
+        Map<String, String> entries = readEntries(ctx.bodyInputStream());
+        phoneBook.addEntries(entries);
+        ctx.contentType(JSON_TYPE).result(json(generator -> generator.writeNumberField("added", entries.size())));
+    }
+
+    // Streams {"name": "number", ...} straight into a map, without an intermediate tree
+    private static Map<String, String> readEntries(InputStream body) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        try (JsonParser parser = JSON.createParser(body)) {
+            expectObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                entries.put(name, text(parser));
+            }
+        } catch (JsonProcessingException e) {
+            throw new BadRequestResponse("Malformed JSON: " + e.getOriginalMessage());
+        }
+        return entries;
+    }
+
+    private static void expectObject(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new BadRequestResponse("Expected a JSON object");
+        }
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw new BadRequestResponse("Expected a string for " + parser.currentName());
+        }
+        return parser.getText();
+    }
+
+    private static String entry(String name, String phoneNumber) {
+        return json(generator -> {
+            generator.writeStringField("name", name);
+            generator.writeStringField("phoneNumber", phoneNumber);
+        });
+    }
+
+    private static void error(Context ctx, HttpStatus status, String message) {
+        ctx.status(status).contentType(JSON_TYPE).result(json(generator -> generator.writeStringField("error", message)));
+    }
+
+    private interface Fields {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private static String json(Fields fields) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            generator.writeStartObject();
+            fields.write(generator);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);  // Writing to memory does not fail
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
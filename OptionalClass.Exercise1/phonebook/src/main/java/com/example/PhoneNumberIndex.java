@@ -0,0 +1,246 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+// Reverse index from packed phone number keys (see PhoneNumbers) to the names holding them.
+//
+// Keys live in primitive long arrays (open addressing, linear probing) instead of boxed or
+// String keys. The table is split into segments, each guarded by its own StampedLock:
+// lookups use optimistic reads and only fall back to a read lock if a writer interfered,
+// writers lock the affected segments in ascending order.
+//
+// Holders of one number are kept in an immutable array, oldest holder first.
+class PhoneNumberIndex {
+
+    private static final int SEGMENTS = 64;  // Power of two
+    private static final int INITIAL_CAPACITY = 16;  // Per segment, power of two
+    private static final String[] NO_HOLDERS = new String[0];
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    PhoneNumberIndex() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    // Oldest holder of the number, or null if nobody holds it
+    String firstHolder(long key) {
+        if (key == PhoneNumbers.NO_KEY) {
+            return null;
+        }
+        long hash = mix(key);
+        Segment segment = segments[segmentOf(hash)];
+        long stamp = segment.lock.tryOptimisticRead();
+        String holder = segment.firstHolder(key, hash);
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                holder = segment.firstHolder(key, hash);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return holder;
+    }
+
+    // All holders of the number, oldest first, or an empty array if nobody holds it
+    String[] holders(long key) {
+        if (key == PhoneNumbers.NO_KEY) {
+            return NO_HOLDERS;
+        }
+        long hash = mix(key);
+        Segment segment = segments[segmentOf(hash)];
+        long stamp = segment.lock.tryOptimisticRead();
+        String[] holders = segment.holders(key, hash);
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                holders = segment.holders(key, hash);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return holders;
+    }
+
+    // Move a name from one number to another. Either key may be NO_KEY, for a name that
+    // had no number yet or is being removed. publish runs while both segments are still
+    // locked, so a lookup of either number sees the move and whatever publish changes
+    // together or not at all.
+    void move(String name, long fromKey, long toKey, Runnable publish) {
+        long fromHash = mix(fromKey);
+        long toHash = mix(toKey);
+        int fromSegment = fromKey == PhoneNumbers.NO_KEY ? -1 : segmentOf(fromHash);
+        int toSegment = toKey == PhoneNumbers.NO_KEY ? -1 : segmentOf(toHash);
+
+        // Lock both segments in ascending order, StampedLock is not reentrant
+        int low = Math.min(fromSegment, toSegment);
+        int high = Math.max(fromSegment, toSegment);
+        long lowStamp = low >= 0 && low != high ? segments[low].lock.writeLock() : 0L;
+        long highStamp = high >= 0 ? segments[high].lock.writeLock() : 0L;
+        try {
+            if (fromSegment >= 0) {
+                segments[fromSegment].remove(fromKey, fromHash, name);
+            }
+            if (toSegment >= 0) {
+                segments[toSegment].add(toKey, toHash, name);
+            }
+            publish.run();
+        } finally {
+            if (high >= 0) {
+                segments[high].lock.unlockWrite(highStamp);
+            }
+            if (low >= 0 && low != high) {
+                segments[low].lock.unlockWrite(lowStamp);
+            }
+        }
+    }
+
+    private static int segmentOf(long hash) {
+        return (int) (hash >>> 58) & (SEGMENTS - 1);
+    }
+
+    // MurmurHash3 finalizer, spreads the decimal-packed keys over the whole long
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    // Keys and holders are swapped together on resize, so a reader always sees a matching pair
+    private static final class Table {
+        final long[] keys;  // NO_KEY marks a free slot
+        final String[][] holders;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            holders = new String[capacity][];
+        }
+    }
+
+    private static final class Segment {
+        final StampedLock lock = new StampedLock();
+        Table table = new Table(INITIAL_CAPACITY);
+        int size;
+
+        // May run without a lock, so it tolerates torn state; the caller validates the stamp
+        String firstHolder(long key, long hash) {
+            String[] names = holders(key, hash);
+            return names.length == 0 ? null : names[0];
+        }
+
+        // Same, the holder arrays are never changed once published
+        String[] holders(long key, long hash) {
+            Table t = table;
+            int mask = t.keys.length - 1;
+            int slot = (int) hash & mask;
+            for (int probes = 0; probes < t.keys.length; probes++) {
+                long k = t.keys[slot];
+                if (k == PhoneNumbers.NO_KEY) {
+                    return NO_HOLDERS;
+                }
+                if (k == key) {
+                    String[] names = t.holders[slot];
+                    return names == null ? NO_HOLDERS : names;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return NO_HOLDERS;
+        }
+
+        void add(long key, long hash, String name) {
+            int slot = slotOf(table, key, hash);
+            if (table.keys[slot] == key) {
+                String[] names = table.holders[slot];
+                String[] updated = Arrays.copyOf(names, names.length + 1);
+                updated[names.length] = name;
+                table.holders[slot] = updated;
+                return;
+            }
+            if ((size + 1) * 2 > table.keys.length) {
+                resize();
+                slot = slotOf(table, key, hash);
+            }
+            // Holders first: a reader that finds the key must never see a missing holder list
+            table.holders[slot] = new String[] { name };
+            table.keys[slot] = key;
+            size++;
+        }
+
+        void remove(long key, long hash, String name) {
+            int slot = slotOf(table, key, hash);
+            if (table.keys[slot] != key) {
+                return;
+            }
+            String[] names = table.holders[slot];
+            int index = Arrays.asList(names).indexOf(name);
+            if (index < 0) {
+                return;
+            }
+            if (names.length > 1) {
+                String[] updated = new String[names.length - 1];
+                System.arraycopy(names, 0, updated, 0, index);
+                System.arraycopy(names, index + 1, updated, index, names.length - index - 1);
+                table.holders[slot] = updated;
+                return;
+            }
+            deleteSlot(slot);
+            size--;
+        }
+
+        // Backward shift deletion keeps probe chains intact without tombstones
+        private void deleteSlot(int slot) {
+            long[] keys = table.keys;
+            String[][] holders = table.holders;
+            int mask = keys.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (keys[next] != PhoneNumbers.NO_KEY) {
+                int home = (int) mix(keys[next]) & mask;
+                // Move the entry into the hole unless its home slot lies cyclically in (hole, next]
+                boolean stays = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+                if (!stays) {
+                    keys[hole] = keys[next];
+                    holders[hole] = holders[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = PhoneNumbers.NO_KEY;
+            holders[hole] = null;
+        }
+
+        private void resize() {
+            Table old = table;
+            Table grown = new Table(old.keys.length * 2);
+            int mask = grown.keys.length - 1;
+            for (int i = 0; i < old.keys.length; i++) {
+                long k = old.keys[i];
+                if (k != PhoneNumbers.NO_KEY) {
+                    int slot = (int) mix(k) & mask;
+                    while (grown.keys[slot] != PhoneNumbers.NO_KEY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    grown.keys[slot] = k;
+                    grown.holders[slot] = old.holders[i];
+                }
+            }
+            table = grown;
+        }
+
+        // Slot holding the key, or the free slot where it would be inserted
+        private static int slotOf(Table t, long key, long hash) {
+            int mask = t.keys.length - 1;
+            int slot = (int) hash & mask;
+            while (t.keys[slot] != PhoneNumbers.NO_KEY && t.keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
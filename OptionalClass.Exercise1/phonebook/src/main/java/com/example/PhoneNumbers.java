@@ -0,0 +1,68 @@
+package com.example;
+
+// Normalization of phone numbers into compact, canonical long keys.
+//
+// Separators (spaces, '/', '-', '.', parentheses) are ignored, so "016/161616", "016 16 16 16"
+// and "(016) 161-616" all map to the same key. A leading '+' is kept as part of the number.
+// The digits are packed behind a sentinel 1 so leading zeros stay significant:
+// "016161616" becomes 1016161616L, and international numbers are stored negated.
+public final class PhoneNumbers {
+
+    // Returned for anything that is not a phone number, never a valid key
+    public static final long NO_KEY = 0L;
+
+    // 1 followed by 18 digits still fits in a long
+    public static final int MAX_DIGITS = 18;
+
+    private PhoneNumbers() { }
+
+    // Pack a phone number into its canonical key, or NO_KEY if it is not a valid number.
+    // Works directly on the characters, so no intermediate String is created.
+    public static long toKey(CharSequence phoneNumber) {
+        if (phoneNumber == null) {
+            return NO_KEY;
+        }
+        long value = 1;  // Sentinel digit
+        int digits = 0;
+        boolean international = false;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    return NO_KEY;
+                }
+                value = value * 10 + (c - '0');
+            } else if (c == '+' && digits == 0 && !international) {
+                international = true;
+            } else if (!isSeparator(c)) {
+                return NO_KEY;
+            }
+        }
+        if (digits == 0) {
+            return NO_KEY;
+        }
+        return international ? -value : value;
+    }
+
+    // Canonical form of a phone number: its digits, with a leading '+' for international numbers
+    public static String normalize(CharSequence phoneNumber) {
+        long key = toKey(phoneNumber);
+        if (key == NO_KEY) {
+            throw new IllegalArgumentException("Invalid phone number: " + phoneNumber);
+        }
+        return toString(key);
+    }
+
+    // Turn a key back into the canonical form of its phone number
+    public static String toString(long key) {
+        if (key == NO_KEY) {
+            throw new IllegalArgumentException("Not a phone number key: " + key);
+        }
+        String digits = Long.toString(Math.abs(key)).substring(1);  // Drop the sentinel
+        return key < 0 ? "+" + digits : digits;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '/' || c == '-' || c == '.' || c == '(' || c == ')' || c == '\t';
+    }
+}
@@ -0,0 +1,84 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachingPhoneBookRepositoryTest {
+
+    private final AtomicInteger storeLookups = new AtomicInteger();
+    private final PhoneBook store = new PhoneBook() {
+        @Override
+        public Optional<String> findPhoneNumberByName(String name) {
+            storeLookups.incrementAndGet();
+            return super.findPhoneNumberByName(name);
+        }
+
+        @Override
+        public Optional<String> findNameByPhoneNumber(String phoneNumber) {
+            storeLookups.incrementAndGet();
+            return super.findNameByPhoneNumber(phoneNumber);
+        }
+    };
+    private final CachingPhoneBookRepository cache = new CachingPhoneBookRepository(store, 100);
+
+    // Test: Repeated lookups, found or not, reach the store once
+    @Test
+    public void find_Cached() {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.findPhoneNumberByName("Jos de Vos")).contains("016/161616");
+            assertThat(cache.findPhoneNumberByName("Nonexistent Name")).isEmpty();
+            assertThat(cache.findNameByPhoneNumber("016 16 16 16")).contains("Jos de Vos");
+            assertThat(cache.findNameByPhoneNumber("000/0000000")).isEmpty();
+        }
+
+        // Assert
+        assertThat(storeLookups).hasValue(4);
+        assertThat(cache.nameCacheStats()).isEqualTo(new LookupCache.Stats(4, 2, 0, 0));
+        assertThat(cache.numberCacheStats().hitRate()).isEqualTo(4.0 / 6);
+    }
+
+    // Test: Writes through the cache replace cached answers, including cached misses
+    @Test
+    public void addEntry_Invalidates() {
+        // Arrange
+        cache.findPhoneNumberByName("Jos de Vos");
+        cache.findNameByPhoneNumber("016/161616");
+        cache.findNameByPhoneNumber("016/999999");
+
+        // Act
+        cache.addEntry("Jos de Vos", "016/999999");
+        cache.addEntries(Map.of("Alice Johnson", "017/171717"));
+
+        // Assert
+        assertThat(cache.findPhoneNumberByName("Jos de Vos")).contains("016/999999");
+        assertThat(cache.findNameByPhoneNumber("016/999999")).contains("Jos de Vos");
+        assertThat(cache.findNameByPhoneNumber("016/161616")).isEmpty();
+        assertThat(cache.findNameByPhoneNumber("017 17 17 17")).contains("Alice Johnson");
+    }
+
+    // Test: Misses can be kept for a shorter time than hits
+    @Test
+    public void negativeTtl() throws InterruptedException {
+        // Arrange
+        CachingPhoneBookRepository shortMisses = new CachingPhoneBookRepository(store, 100, LookupCache.Eviction.LRU,
+                Duration.ZERO, Duration.ofMillis(1));
+        shortMisses.findPhoneNumberByName("Alice Johnson");
+        shortMisses.findPhoneNumberByName("Jos de Vos");
+        store.addEntry("Alice Johnson", "017/171717");  // Bypasses the cache
+
+        // Act
+        Thread.sleep(5);
+
+        // Assert
+        assertThat(shortMisses.findPhoneNumberByName("Alice Johnson")).contains("017/171717");
+        assertThat(shortMisses.nameCacheStats().expirations()).isEqualTo(1);
+        assertThat(storeLookups).hasValue(3);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class H2PhoneBookRepositoryTest {
+
+    private H2PhoneBookRepository repository;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        repository = H2PhoneBookRepository.open("jdbc:h2:mem:" + UUID.randomUUID());
+        repository.addEntries(Map.of(
+                "Ted Striker", "5551212",
+                "Roger Murdock", "3879812",
+                "Jos de Vos", "016/161616"));
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        repository.close();
+    }
+
+    // Test: Lookups in both directions, including normalized numbers and misses
+    @Test
+    public void find() {
+        // Act & Assert
+        assertThat(repository.findPhoneNumberByName("Jos de Vos")).contains("016/161616");
+        assertThat(repository.findNameByPhoneNumber("016 16 16 16")).contains("Jos de Vos");
+        assertThat(repository.findPhoneNumberByName("Nonexistent Name")).isEmpty();
+        assertThat(repository.findNameByPhoneNumber("000/0000000")).isEmpty();
+        assertThat(repository.findNameByPhoneNumber("n/a")).isEmpty();
+    }
+
+    // Test: Lookups follow an entry that changes
+    @Test
+    public void find_AfterOverwrite() {
+        // Arrange
+        assertThat(repository.findPhoneNumberByName("Jos de Vos")).contains("016/161616");
+        assertThat(repository.findNameByPhoneNumber("016/161616")).contains("Jos de Vos");
+
+        // Act
+        repository.addEntry("Jos de Vos", "016/999999");
+
+        // Assert
+        assertThat(repository.findPhoneNumberByName("Jos de Vos")).contains("016/999999");
+        assertThat(repository.findNameByPhoneNumber("016/999999")).contains("Jos de Vos");
+        assertThat(repository.findNameByPhoneNumber("016/161616")).isEmpty();
+    }
+
+    // Test: A shared number resolves to its oldest holder, reformatting a number keeps seniority
+    @Test
+    public void findNameByPhoneNumber_SharedNumber() {
+        // Arrange
+        repository.addEntry("Elaine Dickinson", "555-1212");
+        repository.addEntry("Ted Striker", "555 12 12");
+        assertThat(repository.findNameByPhoneNumber("5551212")).contains("Ted Striker");
+
+        // Act
+        repository.addEntry("Ted Striker", "8675309");
+
+        // Assert
+        assertThat(repository.findNameByPhoneNumber("5551212")).contains("Elaine Dickinson");
+    }
+
+    // Test: Entries written by concurrent callers are all committed
+    @Test
+    public void addEntry_Concurrent() throws InterruptedException {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            int writer = t;
+            executor.execute(() -> {
+                for (int i = 0; i < 200; i++) {
+                    repository.addEntry("Writer " + writer + " Name " + i, "0" + (writer * 1000 + i));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        // Assert
+        for (int t = 0; t < 8; t++) {
+            for (int i = 0; i < 200; i += 17) {
+                assertThat(repository.findNameByPhoneNumber("0" + (t * 1000 + i))).contains("Writer " + t + " Name " + i);
+            }
+        }
+    }
+
+    // Test: Invalid entries are rejected before they reach the database
+    @Test
+    public void addEntry_Invalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> repository.addEntry("Ted Striker", "n/a"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> repository.addEntries(Map.of("Ted Striker", "5551212", "Roger Murdock", "")));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> repository.addEntry("x".repeat(21846), "5551212"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> repository.addEntry("Ted Striker", "5".repeat(10) + " ".repeat(80)));
+        assertThat(repository.findPhoneNumberByName("Ted Striker")).contains("5551212");
+    }
+
+    // Test: Writers racing close() either get in or are turned away, none waits forever
+    @Test
+    public void close_RacingWriters() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            // Arrange
+            H2PhoneBookRepository database = H2PhoneBookRepository.open("jdbc:h2:mem:" + UUID.randomUUID(), 1);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            for (int t = 0; t < 4; t++) {
+                int writer = t;
+                executor.execute(() -> {
+                    try {
+                        for (int i = 0; ; i++) {
+                            database.addEntry("Writer " + writer + " Name " + i, "0" + (writer * 100_000 + i));
+                        }
+                    } catch (IllegalStateException closed) {
+                        // Expected once the phone book is closed
+                    }
+                });
+            }
+
+            // Act
+            Thread.sleep(5);
+            database.close();
+
+            // Assert
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    // Test: A file database keeps its entries, and the holder order, across reopening
+    @Test
+    public void reopen(@TempDir Path directory) throws SQLException {
+        // Arrange
+        String url = "jdbc:h2:file:" + directory.resolve("phonebook").toAbsolutePath();
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            entries.put("Name " + i, "0" + (100_000 + i));
+        }
+        try (H2PhoneBookRepository database = H2PhoneBookRepository.open(url)) {
+            database.addEntries(entries);
+            database.addEntry("Shared Older", "016/161616");
+            database.addEntry("Shared Newer", "016161616");
+        }
+
+        // Act
+        try (H2PhoneBookRepository reopened = H2PhoneBookRepository.open(url, 1)) {
+            reopened.addEntry("Shared Newest", "016 161616");
+
+            // Assert
+            assertThat(reopened.findPhoneNumberByName("Name 4999")).contains("0104999");
+            assertThat(reopened.findNameByPhoneNumber("016/161616")).contains("Shared Older");
+        }
+    }
+}
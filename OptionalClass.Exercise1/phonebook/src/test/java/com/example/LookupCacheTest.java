@@ -0,0 +1,124 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LookupCacheTest {
+
+    // Test: LRU evicts the entry that was used least recently
+    @Test
+    public void lru_EvictsLeastRecentlyUsed() {
+        // Arrange
+        List<String> removed = new ArrayList<>();
+        LookupCache<String, String> cache = new LookupCache<>(3, LookupCache.Eviction.LRU, (key, value) -> removed.add(key));
+        cache.put("a", "1", 0);
+        cache.put("b", "2", 0);
+        cache.put("c", "3", 0);
+        cache.get("a");
+
+        // Act
+        cache.put("d", "4", 0);
+
+        // Assert
+        assertThat(removed).containsExactly("b");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.stats()).isEqualTo(new LookupCache.Stats(2, 1, 1, 0));
+    }
+
+    // Test: W-TinyLFU keeps frequently used entries through a scan of one-off keys
+    @Test
+    public void tinyLfu_ResistsScan() {
+        // Arrange
+        LookupCache<Integer, Integer> cache = new LookupCache<>(100, LookupCache.Eviction.TINY_LFU);
+        for (int round = 0; round < 5; round++) {
+            for (int hot = 0; hot < 50; hot++) {
+                if (cache.get(hot) == null) {
+                    cache.put(hot, hot, 0);
+                }
+            }
+        }
+
+        // Act
+        for (int cold = 1000; cold < 11_000; cold++) {
+            if (cache.get(cold) == null) {
+                cache.put(cold, cold, 0);
+            }
+        }
+
+        // Assert
+        int hotLeft = 0;
+        for (int hot = 0; hot < 50; hot++) {
+            if (cache.get(hot) != null) {
+                hotLeft++;
+            }
+        }
+        assertThat(hotLeft).isGreaterThanOrEqualTo(45);
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    // Test: Entries expire after their TTL and count as misses
+    @Test
+    public void ttl_Expires() {
+        // Arrange
+        AtomicLong now = new AtomicLong();
+        LookupCache<String, String> cache = new LookupCache<>(10, LookupCache.Eviction.TINY_LFU, (key, value) -> { }, now::get);
+        cache.put("short", "1", 100);
+        cache.put("forever", "2", 0);
+
+        // Act
+        now.set(99);
+        String beforeExpiry = cache.get("short");
+        now.set(100);
+        String afterExpiry = cache.get("short");
+        now.set(Long.MAX_VALUE);
+
+        // Assert
+        assertThat(beforeExpiry).isEqualTo("1");
+        assertThat(afterExpiry).isNull();
+        assertThat(cache.get("forever")).isEqualTo("2");
+        assertThat(cache.stats().expirations()).isEqualTo(1);
+        assertThat(cache.stats().hitRate()).isEqualTo(2.0 / 3);
+    }
+
+    // Test: Lookups from many threads do not lock, yet see every value and count every request
+    @Test
+    public void get_ConcurrentReaders() throws InterruptedException {
+        // Arrange: a small cache, so a single segment serves every reader
+        LookupCache<Integer, Integer> cache = new LookupCache<>(100, LookupCache.Eviction.TINY_LFU);
+        for (int key = 0; key < 50; key++) {
+            cache.put(key, key, 0);
+        }
+        List<Thread> readers = new ArrayList<>();
+        AtomicLong wrong = new AtomicLong();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            readers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    Integer value = cache.get(i % 60);
+                    if (i % 60 < 50 ? !Integer.valueOf(i % 60).equals(value) : value != null) {
+                        wrong.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        // Assert: buffered accesses are applied on the next write without breaking the queues
+        assertThat(wrong.get()).isZero();
+        assertThat(cache.stats().hits() + cache.stats().misses()).isEqualTo(800_000);
+        for (int key = 1000; key < 2000; key++) {
+            cache.put(key, key, 0);
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+}
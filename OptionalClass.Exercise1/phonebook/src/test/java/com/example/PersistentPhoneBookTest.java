@@ -0,0 +1,233 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersistentPhoneBookTest {
+
+    @TempDir
+    Path directory;
+
+    // Test: Entries survive closing and reopening the phone book
+    @Test
+    public void reopen() throws IOException {
+        // Arrange
+        try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory)) {
+            phoneBook.addEntry("Ted Striker", "5551212");
+            phoneBook.addEntries(Map.of("Jos de Vos", "016/161616", "Roger Murdock", "3879812"));
+            phoneBook.addEntry("Ted Striker", "5551313");
+        }
+
+        // Act
+        try (PersistentPhoneBook reopened = PersistentPhoneBook.open(directory)) {
+            // Assert
+            assertThat(reopened.getPhoneBookEntries()).hasSize(3);
+            assertThat(reopened.findPhoneNumberByName("Ted Striker")).contains("5551313");
+            assertThat(reopened.findNameByPhoneNumber("016 16 16 16")).contains("Jos de Vos");
+        }
+    }
+
+    // Test: A CSV import goes through the log like any other write
+    @Test
+    public void reopen_AfterCsvImport() throws IOException {
+        // Arrange
+        Path csv = directory.resolve("entries.csv");
+        Files.writeString(csv, "Ted Striker,5551212\nElaine Dickinson,8675309\n");
+        try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory.resolve("book"))) {
+            assertThat(PhoneBookFiles.loadCsv(phoneBook, csv)).isEqualTo(2);
+            assertThat(phoneBook.logSize()).isPositive();
+        }
+
+        // Act
+        try (PersistentPhoneBook reopened = PersistentPhoneBook.open(directory.resolve("book"))) {
+            // Assert
+            assertThat(reopened.findPhoneNumberByName("Ted Striker")).contains("5551212");
+            assertThat(reopened.findNameByPhoneNumber("8675309")).contains("Elaine Dickinson");
+        }
+    }
+
+    // Test: Recovery loads the snapshot and replays only the log written after it
+    @Test
+    public void reopen_AfterCheckpoint() throws IOException {
+        // Arrange
+        try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory)) {
+            phoneBook.addEntry("Ted Striker", "5551212");
+            phoneBook.checkpoint();
+            assertThat(phoneBook.logSize()).isZero();
+            phoneBook.addEntry("Elaine Dickinson", "8675309");
+        }
+
+        // Act
+        try (PersistentPhoneBook reopened = PersistentPhoneBook.open(directory)) {
+            // Assert
+            assertThat(reopened.findPhoneNumberByName("Ted Striker")).contains("5551212");
+            assertThat(reopened.findPhoneNumberByName("Elaine Dickinson")).contains("8675309");
+        }
+    }
+
+    // Test: A shared number keeps its oldest holder across a checkpoint and a restart
+    @Test
+    public void reopen_SharedNumber() throws IOException {
+        // Arrange
+        try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory)) {
+            for (int i = 20; i > 0; i--) {
+                phoneBook.addEntry("Name " + i, "5551212");
+            }
+            phoneBook.checkpoint();
+            for (int i = 40; i > 20; i--) {
+                phoneBook.addEntry("Name " + i, "3879812");
+            }
+        }
+
+        // Act
+        try (PersistentPhoneBook reopened = PersistentPhoneBook.open(directory)) {
+            // Assert: from the snapshot and from the log
+            assertThat(reopened.findNameByPhoneNumber("5551212")).contains("Name 20");
+            assertThat(reopened.findNameByPhoneNumber("3879812")).contains("Name 40");
+            reopened.addEntry("Name 20", "8675309");
+            assertThat(reopened.findNameByPhoneNumber("5551212")).contains("Name 19");
+        }
+    }
+
+    // Test: The log is checkpointed in the background once it grows past the threshold
+    @Test
+    public void checkpoint_Automatic() throws IOException {
+        // Act: 200 records of 23 bytes
+        try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory, 1024)) {
+            for (int i = 0; i < 200; i++) {
+                phoneBook.addEntry("Name " + i, "0" + (1000 + i));
+            }
+        }
+
+        // Assert: closing waits for the last snapshot, and the log kept only the tail
+        assertThat(directory.resolve(PersistentPhoneBook.SNAPSHOT_FILE)).exists();
+        assertThat(directory.resolve(PersistentPhoneBook.OLD_LOG_FILE)).doesNotExist();
+        assertThat(Files.size(directory.resolve(PersistentPhoneBook.LOG_FILE))).isLessThan(200 * 23 / 2);
+        try (PersistentPhoneBook reopened = PersistentPhoneBook.open(directory)) {
+            assertThat(reopened.getPhoneBookEntries()).hasSize(200);
+        }
+    }
+
+    // Test: A torn record at the end of the log is dropped, everything before it is kept
+    @Test
+    public void reopen_TornLog() throws IOException {
+        // Arrange
+        try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory)) {
+            phoneBook.addEntry("Ted Striker", "5551212");
+        }
+        Path log = directory.resolve(PersistentPhoneBook.LOG_FILE);
+        long intact = Files.size(log);
+        Files.write(log, new byte[] { 0, 0, 0, 42, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        // Act
+        try (PersistentPhoneBook reopened = PersistentPhoneBook.open(directory)) {
+            // Assert
+            assertThat(reopened.findPhoneNumberByName("Ted Striker")).contains("5551212");
+            assertThat(reopened.logSize()).isEqualTo(intact);
+        }
+    }
+
+    // Test: A checkpoint that did not finish is completed on recovery, old log before new log
+    @Test
+    public void reopen_UnfinishedCheckpoint() throws IOException {
+        // Arrange: the old log holds Ted's first number, the current log his second one
+        Path other = directory.resolve("other");
+        try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory)) {
+            phoneBook.addEntry("Ted Striker", "5551212");
+            phoneBook.addEntry("Roger Murdock", "3879812");
+        }
+        try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(other)) {
+            phoneBook.addEntry("Ted Striker", "5551313");
+        }
+        Files.move(directory.resolve(PersistentPhoneBook.LOG_FILE), directory.resolve(PersistentPhoneBook.OLD_LOG_FILE));
+        Files.move(other.resolve(PersistentPhoneBook.LOG_FILE), directory.resolve(PersistentPhoneBook.LOG_FILE));
+
+        // Act
+        try (PersistentPhoneBook reopened = PersistentPhoneBook.open(directory)) {
+            // Assert
+            assertThat(reopened.findPhoneNumberByName("Ted Striker")).contains("5551313");
+            assertThat(reopened.findPhoneNumberByName("Roger Murdock")).contains("3879812");
+            assertThat(reopened.logSize()).isZero();
+            assertThat(directory.resolve(PersistentPhoneBook.OLD_LOG_FILE)).doesNotExist();
+        }
+    }
+
+    // Test: Writers racing close() either get in or are turned away, none waits forever
+    @Test
+    public void close_RacingWriters() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            // Arrange
+            PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory.resolve("round" + round));
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            for (int t = 0; t < 4; t++) {
+                int writer = t;
+                executor.execute(() -> {
+                    try {
+                        for (int i = 0; ; i++) {
+                            phoneBook.addEntry("Writer " + writer + " Name " + i, "0" + (writer * 100_000 + i));
+                        }
+                    } catch (IllegalStateException closed) {
+                        // Expected once the phone book is closed
+                    }
+                });
+            }
+
+            // Act
+            Thread.sleep(5);
+            phoneBook.close();
+
+            // Assert
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    // Test: Concurrent writers are all made durable
+    @Test
+    public void addEntry_Concurrent() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory)) {
+            // Act
+            for (int t = 0; t < 8; t++) {
+                int writer = t;
+                executor.execute(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        phoneBook.addEntry("Writer " + writer + " Name " + i, "0" + (writer * 1000 + i));
+                    }
+                });
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+
+        // Assert
+        try (PersistentPhoneBook reopened = PersistentPhoneBook.open(directory)) {
+            assertThat(reopened.getPhoneBookEntries()).hasSize(800);
+            assertThat(reopened.findNameByPhoneNumber("07099")).contains("Writer 7 Name 99");
+        }
+    }
+
+    // Test: Invalid entries never reach the log, and a closed phone book takes no writes
+    @Test
+    public void addEntry_Rejected() throws IOException {
+        PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> phoneBook.addEntry("Ted Striker", "n/a"));
+        assertThat(phoneBook.logSize()).isZero();
+
+        phoneBook.close();
+        Assertions.assertThrows(IllegalStateException.class, () -> phoneBook.addEntry("Ted Striker", "5551212"));
+    }
+}
@@ -0,0 +1,186 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PhoneBookFilesTest {
+
+    @TempDir
+    Path directory;
+
+    // Test: Load a CSV file with comments, Windows line breaks and repeated names
+    @Test
+    public void loadCsv() throws IOException {
+        // Arrange
+        Path csv = directory.resolve("phonebook.csv");
+        Files.writeString(csv, "# name,phoneNumber\n"
+                + "Ted Striker,5551212\r\n"
+                + "Murdock, Roger,3879812\n"
+                + "\n"
+                + "Ted Striker,555 1313\n"
+                + "Jos de Vos,016/161616");
+        PhoneBook phoneBook = new PhoneBook(Map.of());
+
+        // Act
+        int loaded = PhoneBookFiles.loadCsv(phoneBook, csv);
+
+        // Assert
+        assertThat(loaded).isEqualTo(3);
+        assertThat(phoneBook.findPhoneNumberByName("Ted Striker")).contains("555 1313");
+        assertThat(phoneBook.findNameByPhoneNumber("3879812")).contains("Murdock, Roger");
+        assertThat(phoneBook.findNameByPhoneNumber("016161616")).contains("Jos de Vos");
+    }
+
+    // Test: A large CSV file is split into several chunks without losing lines
+    @Test
+    public void loadCsv_ManyChunks() throws IOException {
+        // Arrange
+        Path csv = directory.resolve("large.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            content.append("Name ").append(i).append(',').append(1_000_000 + i).append('\n');
+        }
+        Files.writeString(csv, content);
+        PhoneBook phoneBook = new PhoneBook(Map.of());
+
+        // Act
+        int loaded = PhoneBookFiles.loadCsv(phoneBook, csv);
+
+        // Assert
+        assertThat(loaded).isEqualTo(200_000);
+        assertThat(phoneBook.findNameByPhoneNumber("1199999")).contains("Name 199999");
+        assertThat(phoneBook.findNamesByPrefix("name 19999", 20)).hasSize(11);
+    }
+
+    // Test: Malformed CSV lines are reported
+    @Test
+    public void loadCsv_Malformed() throws IOException {
+        // Arrange
+        Path csv = directory.resolve("broken.csv");
+        Files.writeString(csv, "Ted Striker 5551212\n");
+
+        // Act & Assert
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> PhoneBookFiles.loadCsv(new PhoneBook(Map.of()), csv));
+    }
+
+    // Test: Names sharing a number become its holders in file order, in small and large files
+    @Test
+    public void loadCsv_SharedNumbersInFileOrder() throws IOException {
+        for (int filler : new int[] { 0, 50_000 }) {
+            // Arrange: the oldest holder of 5551212 is Elaine, who moved there last but left
+            // Roger's number before; Ted only changed the format of his number
+            Path csv = directory.resolve("shared-" + filler + ".csv");
+            StringBuilder content = new StringBuilder()
+                    .append("Elaine Dickinson,5551212\n")
+                    .append("Ted Striker,5551212\n")
+                    .append("Elaine Dickinson,8675309\n")
+                    .append("Roger Murdock,5551212\n");
+            for (int i = 0; i < filler; i++) {
+                content.append("Name ").append(i).append(',').append(1_000_000 + i).append('\n');
+            }
+            content.append("Ted Striker,555 1212\n")
+                    .append("Elaine Dickinson,5551212\n");
+            Files.writeString(csv, content);
+            PhoneBook phoneBook = new PhoneBook(Map.of());
+
+            // Act
+            PhoneBookFiles.loadCsv(phoneBook, csv);
+
+            // Assert: the same holder as adding the lines one by one
+            PhoneBook oneByOne = new PhoneBook(Map.of());
+            Files.readAllLines(csv).forEach(line -> oneByOne.addEntry(
+                    line.substring(0, line.lastIndexOf(',')), line.substring(line.lastIndexOf(',') + 1)));
+            assertThat(phoneBook.findNameByPhoneNumber("5551212")).contains("Ted Striker");
+            assertThat(phoneBook.findNameByPhoneNumber("5551212")).isEqualTo(oneByOne.findNameByPhoneNumber("5551212"));
+            assertThat(phoneBook.findPhoneNumberByName("Ted Striker")).contains("555 1212");
+        }
+    }
+
+    // Test: An invalid phone number anywhere in the file leaves the phone book as it was
+    @Test
+    public void loadCsv_InvalidNumber() throws IOException {
+        // Arrange
+        Path csv = directory.resolve("invalid.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            content.append("Name ").append(i).append(',').append(i == 150_000 ? "n/a" : 1_000_000 + i).append('\n');
+        }
+        Files.writeString(csv, content);
+        PhoneBook phoneBook = new PhoneBook(Map.of());
+
+        // Act & Assert
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PhoneBookFiles.loadCsv(phoneBook, csv));
+        assertThat(phoneBook.getPhoneBookEntries()).isEmpty();
+    }
+
+    // Test: A snapshot brings back every entry with its original formatting
+    @Test
+    public void writeSnapshot_RoundTrip() throws IOException {
+        // Arrange
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < 150_000; i++) {
+            entries.put("Näme " + i, "0" + (10_000_000 + i));
+        }
+        entries.put("Jos de Vos", "016/161616");
+        PhoneBook original = new PhoneBook(entries);
+        Path snapshot = directory.resolve("phonebook.snapshot");
+
+        // Act
+        PhoneBookFiles.writeSnapshot(original, snapshot);
+        PhoneBook restored = new PhoneBook(Map.of());
+        int loaded = PhoneBookFiles.loadSnapshot(restored, snapshot);
+
+        // Assert
+        assertThat(loaded).isEqualTo(entries.size());
+        assertThat(restored.getPhoneBookEntries()).isEqualTo(entries);
+        assertThat(restored.findNameByPhoneNumber("016 16 16 16")).contains("Jos de Vos");
+        assertThat(Files.list(directory)).containsExactly(snapshot);
+    }
+
+    // Test: Every shared number has the same holders, oldest first, after a snapshot round trip
+    @Test
+    public void writeSnapshot_SharedNumbers() throws IOException {
+        // Arrange: 100 holders per number, the highest name is the oldest
+        PhoneBook original = new PhoneBook(Map.of());
+        for (int i = 0; i < 100_000; i++) {
+            original.addEntry("Name " + (99_999 - i), "0" + (1_000_000 + i % 1_000));
+        }
+        Path snapshot = directory.resolve("phonebook.snapshot");
+
+        // Act
+        PhoneBookFiles.writeSnapshot(original, snapshot);
+        PhoneBook restored = new PhoneBook(Map.of());
+        PhoneBookFiles.loadSnapshot(restored, snapshot);
+
+        // Assert: same oldest holder, and the same next-oldest once it moves away
+        for (int n = 0; n < 1_000; n++) {
+            String number = "0" + (1_000_000 + n);
+            assertThat(restored.findNameByPhoneNumber(number)).contains("Name " + (99_999 - n));
+            original.addEntry("Name " + (99_999 - n), "0999");
+            restored.addEntry("Name " + (99_999 - n), "0999");
+            assertThat(restored.findNameByPhoneNumber(number)).isEqualTo(original.findNameByPhoneNumber(number));
+        }
+    }
+
+    // Test: Anything else is not mistaken for a snapshot
+    @Test
+    public void loadSnapshot_NotASnapshot() throws IOException {
+        // Arrange
+        Path file = directory.resolve("phonebook.csv");
+        Files.writeString(file, "Ted Striker,5551212\n");
+
+        // Act & Assert
+        Assertions.assertThrows(IOException.class,
+                () -> PhoneBookFiles.loadSnapshot(new PhoneBook(Map.of()), file));
+    }
+}
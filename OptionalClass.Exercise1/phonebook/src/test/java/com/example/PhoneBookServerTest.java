@@ -0,0 +1,85 @@
+package com.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PhoneBookServerTest {
+
+    private final PhoneBook phoneBook = new PhoneBook();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private PhoneBookServer server;
+
+    @BeforeEach
+    public void setUp() {
+        server = new PhoneBookServer(phoneBook).start(0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    // Test: Lookups by name and by phone number, found and not found
+    @Test
+    public void find() throws Exception {
+        // Act
+        HttpResponse<String> byName = get("/entries?name=" + encode("Jos de Vos"));
+        HttpResponse<String> byNumber = get("/entries?phoneNumber=" + encode("016 16 16 16"));
+        HttpResponse<String> missing = get("/entries?name=" + encode("Nonexistent Name"));
+
+        // Assert
+        assertThat(byName.statusCode()).isEqualTo(200);
+        assertThat(byName.body()).isEqualTo("{\"name\":\"Jos de Vos\",\"phoneNumber\":\"016/161616\"}");
+        assertThat(byNumber.body()).isEqualTo("{\"name\":\"Jos de Vos\",\"phoneNumber\":\"016 16 16 16\"}");
+        assertThat(missing.statusCode()).isEqualTo(404);
+        assertThat(get("/entries").statusCode()).isEqualTo(400);
+    }
+
+    // Test: Adding single entries and bulk entries, and rejecting bad input
+    @Test
+    public void add() throws Exception {
+        // Act
+        HttpResponse<String> single = post("/entries", "{\"name\":\"Alice Johnson\",\"phoneNumber\":\"017/171717\"}");
+        HttpResponse<String> bulk = post("/entries/bulk", "{\"Bob\":\"0123\",\"Carol \\\"C\\\"\":\"0456\"}");
+        HttpResponse<String> invalid = post("/entries", "{\"name\":\"Dave\",\"phoneNumber\":\"n/a\"}");
+        HttpResponse<String> malformed = post("/entries/bulk", "{\"Eve\":");
+
+        // Assert
+        assertThat(single.statusCode()).isEqualTo(204);
+        assertThat(bulk.body()).isEqualTo("{\"added\":2}");
+        assertThat(phoneBook.findPhoneNumberByName("Alice Johnson")).contains("017/171717");
+        assertThat(phoneBook.findNameByPhoneNumber("0456")).contains("Carol \"C\"");
+        assertThat(invalid.statusCode()).isEqualTo(400);
+        assertThat(invalid.body()).contains("Invalid phone number");
+        assertThat(malformed.statusCode()).isEqualTo(400);
+        assertThat(phoneBook.findPhoneNumberByName("Eve")).isEmpty();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.port() + path);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
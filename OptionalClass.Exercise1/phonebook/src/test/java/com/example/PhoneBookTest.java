@@ -3,8 +3,17 @@ package com.example;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Assertions;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -34,6 +43,16 @@ public class PhoneBookTest {
         assertThat(exception).isNotNull();
     }
 
+    // Test: Find phone number by a null name
+    @Test
+    public void findPhoneNumberByName_Null() {
+        // Act
+        Optional<String> phoneNumber = phoneBook.findPhoneNumberByName(null);
+
+        // Assert
+        assertThat(phoneNumber).isEmpty();
+    }
+
     // Test: Find name by phone number (successful case)
     @Test
     public void findNameByPhoneNumber() {
@@ -55,4 +74,293 @@ public class PhoneBookTest {
 
         assertThat(exception).isNotNull();
     }
-}
\ No newline at end of file
+
+    // Test: Reverse lookup follows a name that moves to a new phone number
+    @Test
+    public void findNameByPhoneNumber_AfterOverwrite() {
+        // Arrange
+        phoneBook.addEntry("Jos de Vos", "016/999999");
+
+        // Act & Assert
+        assertThat(phoneBook.findNameByPhoneNumber("016/999999")).contains("Jos de Vos");
+        assertThat(phoneBook.findNameByPhoneNumber("016/161616")).isEmpty();
+    }
+
+    // Test: A shared phone number resolves to its oldest holder, then to the next one
+    @Test
+    public void findNameByPhoneNumber_SharedNumber() {
+        // Arrange
+        phoneBook.addEntry("Mary Striker", "5551212");
+
+        // Act & Assert
+        assertThat(phoneBook.findNameByPhoneNumber("5551212")).contains("Ted Striker");
+
+        phoneBook.addEntry("Ted Striker", "5551313");
+        assertThat(phoneBook.findNameByPhoneNumber("5551212")).contains("Mary Striker");
+    }
+
+    // Test: Concurrent writers leave the forward and reverse index consistent
+    @Test
+    public void addEntry_Concurrent() throws InterruptedException {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act: every writer keeps moving a shared set of names between numbers
+        for (int t = 0; t < 8; t++) {
+            int writer = t;
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    phoneBook.addEntry("Name " + (i % 100), "555" + ((i + writer) % 50));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        // Assert
+        phoneBook.getPhoneBookEntries().forEach((name, number) ->
+                assertThat(phoneBook.findNameByPhoneNumber(number)).isPresent());
+        for (int n = 0; n < 50; n++) {
+            String number = "555" + n;
+            phoneBook.findNameByPhoneNumber(number).ifPresent(holder ->
+                    assertThat(phoneBook.findPhoneNumberByName(holder)).contains(number));
+        }
+    }
+
+    // Test: Readers never see a move in one index but not the other
+    @Test
+    public void addEntry_AtomicMove() throws InterruptedException {
+        // Arrange: one name keeps moving on to fresh numbers, never back
+        PhoneBook book = new PhoneBook(Map.of("Ted Striker", "5550"));
+        int moves = 100_000;
+        List<String> violations = new ArrayList<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= moves; i++) {
+                book.addEntry("Ted Striker", "555" + i);
+            }
+        });
+
+        // Act: the reader checks each index against the other while the writer runs
+        writer.start();
+        while (writer.isAlive() && violations.isEmpty()) {
+            String number = book.findPhoneNumberByName("Ted Striker").orElseThrow();
+            // The number just read is in the reverse index, unless the name has moved on since
+            if (book.findNameByPhoneNumber(number).isEmpty()
+                    && book.findPhoneNumberByName("Ted Striker").orElseThrow().equals(number)) {
+                violations.add("forward " + number + " without reverse");
+            }
+            // A number the reverse index has is, or was until just now, the forward number
+            String next = "555" + (Integer.parseInt(number.substring(3)) + 1);
+            if (book.findNameByPhoneNumber(next).isPresent()
+                    && Integer.parseInt(book.findPhoneNumberByName("Ted Striker").orElseThrow().substring(3))
+                            < Integer.parseInt(next.substring(3))) {
+                violations.add("reverse " + next + " before forward");
+            }
+        }
+        writer.join();
+
+        // Assert
+        assertThat(violations).isEmpty();
+        assertThat(book.findNameByPhoneNumber("555" + moves)).contains("Ted Striker");
+    }
+
+    // Test: Formatting variants of a phone number find the same entry
+    @Test
+    public void findNameByPhoneNumber_Normalized() {
+        // Act & Assert
+        assertThat(phoneBook.findNameByPhoneNumber("016 16 16 16")).contains("Jos de Vos");
+        assertThat(phoneBook.findNameByPhoneNumber("(016) 161-616")).contains("Jos de Vos");
+        assertThat(phoneBook.findNameByPhoneNumber("16/161616")).isEmpty();
+        assertThat(phoneBook.findNameByPhoneNumber("not a number")).isEmpty();
+    }
+
+    // Test: Invalid phone numbers are rejected
+    @Test
+    public void addEntry_InvalidPhoneNumber() {
+        // Act & Assert
+        Assertions.assertThrows(IllegalArgumentException.class, () -> phoneBook.addEntry("Ted Striker", "555-CALL"));
+        assertThat(phoneBook.findPhoneNumberByName("Ted Striker")).contains("5551212");
+    }
+
+    // Test: Random updates agree with a straightforward scan of the entries
+    @Test
+    public void findNameByPhoneNumber_RandomUpdates() {
+        // Arrange
+        PhoneBook book = new PhoneBook(Map.of());
+        Map<String, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 20_000; i++) {
+            String name = "Name " + random.nextInt(2_000);
+            String number = "0" + random.nextInt(3_000);
+            book.addEntry(name, number);
+            expected.put(name, number);
+        }
+
+        // Assert
+        for (int n = 0; n < 3_000; n++) {
+            String number = "0" + n;
+            boolean held = expected.containsValue(number);
+            Optional<String> holder = book.findNameByPhoneNumber(number);
+            assertThat(holder.isPresent()).isEqualTo(held);
+            holder.ifPresent(name -> assertThat(expected.get(name)).isEqualTo(number));
+        }
+    }
+
+    // Test: Type-ahead search by name prefix, ignoring case
+    @Test
+    public void findNamesByPrefix() {
+        // Arrange
+        phoneBook.addEntry("rogue One", "0123");
+        phoneBook.addEntry("Rob Roy", "0124");
+
+        // Act & Assert
+        assertThat(phoneBook.findNamesByPrefix("Rog", 10).collect(Collectors.toList()))
+                .containsExactly("Roger Murdock", "rogue One");
+        assertThat(phoneBook.findNamesByPrefix("ro", 2).collect(Collectors.toList()))
+                .containsExactly("Rob Roy", "Roger Murdock");
+        assertThat(phoneBook.findNamesByPrefix("Xavier", 10)).isEmpty();
+        assertThat(phoneBook.findNamesByPrefix("", 10)).hasSize(6);
+    }
+
+    // Test: Fuzzy search tolerates a bounded number of typos
+    @Test
+    public void findNamesSimilarTo() {
+        // Act
+        List<String> oneTypo = phoneBook.findNamesSimilarTo("Jos de Voss", 1, 10).collect(Collectors.toList());
+        List<String> twoTypos = phoneBook.findNamesSimilarTo("ted striekr", 2, 10).collect(Collectors.toList());
+
+        // Assert
+        assertThat(oneTypo).containsExactly("Jos de Vos");
+        assertThat(twoTypos).containsExactly("Ted Striker");
+        assertThat(phoneBook.findNamesSimilarTo("ted striekr", 1, 10)).isEmpty();
+    }
+
+    // Test: Prefix and fuzzy search agree with a plain scan over every name
+    @Test
+    public void findNames_MatchBruteForce() {
+        // Arrange
+        PhoneBook book = new PhoneBook(Map.of());
+        Random random = new Random(7);
+        Map<String, String> bulk = new HashMap<>();
+        for (int i = 0; i < 6_000; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int c = 1 + random.nextInt(6); c > 0; c--) {
+                name.append((char) ('a' + random.nextInt(4)));
+            }
+            if (i < 4_000) {
+                bulk.put(name.toString(), "0" + i);  // Too many for the recent additions, lands in the compact trie
+            } else if (i % 2 == 0) {
+                book.addEntry(name.toString(), "0" + i);  // Stays in the recent additions
+            } else {
+                book.addEntries(Map.of(name.toString(), "0" + i));  // Small batches join them
+            }
+            if (i == 3_999) {
+                book.addEntries(bulk);
+            }
+        }
+
+        // Act & Assert
+        for (String query : List.of("abc", "dd", "abcdab", "")) {
+            List<String> expected = book.getPhoneBookEntries().keySet().stream()
+                    .filter(name -> editDistance(name, query) <= 2)
+                    .sorted()
+                    .collect(Collectors.toList());
+            assertThat(book.findNamesSimilarTo(query, 2, Integer.MAX_VALUE).collect(Collectors.toList()))
+                    .isEqualTo(expected);
+        }
+        for (String prefix : List.of("a", "abc", "dab", "")) {
+            List<String> expected = book.getPhoneBookEntries().keySet().stream()
+                    .filter(name -> name.startsWith(prefix))
+                    .sorted()
+                    .collect(Collectors.toList());
+            assertThat(book.findNamesByPrefix(prefix, Integer.MAX_VALUE).collect(Collectors.toList()))
+                    .isEqualTo(expected);
+        }
+    }
+
+    // Test: Lookups without an Optional return the fallback or skip the callback on a miss
+    @Test
+    public void findWithoutOptional() {
+        // Arrange
+        List<String> found = new ArrayList<>();
+
+        // Act
+        boolean numberFound = phoneBook.ifPhoneNumberFound("Jos de Vos", found::add);
+        boolean nameFound = phoneBook.ifNameFound("016 16 16 16", found::add);
+        boolean missingNumberFound = phoneBook.ifPhoneNumberFound("Nonexistent Name", found::add);
+        boolean missingNameFound = phoneBook.ifNameFound("000/0000000", found::add);
+
+        // Assert
+        assertThat(numberFound).isTrue();
+        assertThat(nameFound).isTrue();
+        assertThat(missingNumberFound).isFalse();
+        assertThat(missingNameFound).isFalse();
+        assertThat(found).containsExactly("016/161616", "Jos de Vos");
+        assertThat(phoneBook.findPhoneNumberByNameOrElse("Ted Striker", "none")).isEqualTo("5551212");
+        assertThat(phoneBook.findPhoneNumberByNameOrElse("Nonexistent Name", "none")).isEqualTo("none");
+        assertThat(phoneBook.findNameByPhoneNumberOrElse("n/a", null)).isNull();
+        assertThat(phoneBook.findPhoneNumberByNameOrElse(null, "none")).isEqualTo("none");
+        assertThat(phoneBook.ifPhoneNumberFound(null, found::add)).isFalse();
+    }
+
+    // Test: Batch lookups fill misses with null and agree with the single-key lookups
+    @Test
+    public void findBatch() {
+        // Arrange
+        String[] names = { "Jos de Vos", "Nonexistent Name", null, "Ted Striker" };
+        String[] numbers = { "016 16 16 16", "000/0000000", "n/a", null };
+        String[] byName = new String[names.length];
+        String[] byNumber = new String[numbers.length];
+
+        // Act
+        phoneBook.findPhoneNumbersByNames(names, byName);
+        phoneBook.findNamesByPhoneNumbers(numbers, byNumber);
+
+        // Assert
+        assertThat(byName).containsExactly("016/161616", null, null, "5551212");
+        assertThat(byNumber).containsExactly("Jos de Vos", null, null, null);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> phoneBook.findPhoneNumbersByNames(names, new String[1]));
+    }
+
+    // Test: Large batches are split into chunks that are looked up in parallel
+    @Test
+    public void findBatch_Parallel() {
+        // Arrange
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            entries.put("Name " + i, "0" + (100_000 + i));
+        }
+        PhoneBook book = new PhoneBook(entries);
+        String[] numbers = new String[100_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = "0" + (100_000 + i);
+        }
+        String[] names = new String[numbers.length];
+
+        // Act
+        book.findNamesByPhoneNumbers(numbers, names);
+
+        // Assert
+        for (int i = 0; i < names.length; i++) {
+            assertThat(names[i]).isEqualTo(i < 50_000 ? "Name " + i : null);
+        }
+    }
+
+    private static int editDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                } else {
+                    int substitution = d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                    d[i][j] = Math.min(substitution, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,38 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Assertions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PhoneNumbersTest {
+
+    // Test: Separators are ignored, leading zeros and '+' are kept
+    @Test
+    public void toKey() {
+        assertThat(PhoneNumbers.toKey("016/161616")).isEqualTo(1016161616L);
+        assertThat(PhoneNumbers.toKey(" 016-16.16 16 ")).isEqualTo(1016161616L);
+        assertThat(PhoneNumbers.toKey("16161616")).isNotEqualTo(PhoneNumbers.toKey("016161616"));
+        assertThat(PhoneNumbers.toKey("+32 16 161616")).isEqualTo(-13216161616L);
+    }
+
+    // Test: Anything that is not a phone number has no key
+    @Test
+    public void toKey_Invalid() {
+        assertThat(PhoneNumbers.toKey(null)).isEqualTo(PhoneNumbers.NO_KEY);
+        assertThat(PhoneNumbers.toKey("")).isEqualTo(PhoneNumbers.NO_KEY);
+        assertThat(PhoneNumbers.toKey("--")).isEqualTo(PhoneNumbers.NO_KEY);
+        assertThat(PhoneNumbers.toKey("555-CALL")).isEqualTo(PhoneNumbers.NO_KEY);
+        assertThat(PhoneNumbers.toKey("12+34")).isEqualTo(PhoneNumbers.NO_KEY);
+        assertThat(PhoneNumbers.toKey("1234567890123456789")).isEqualTo(PhoneNumbers.NO_KEY);
+    }
+
+    // Test: Keys turn back into the canonical form
+    @Test
+    public void normalize() {
+        assertThat(PhoneNumbers.normalize("016/161616")).isEqualTo("016161616");
+        assertThat(PhoneNumbers.normalize("+32 (16) 16-16-16")).isEqualTo("+3216161616");
+        assertThat(PhoneNumbers.normalize("999999999999999999")).isEqualTo("999999999999999999");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PhoneNumbers.normalize("n/a"));
+    }
+}
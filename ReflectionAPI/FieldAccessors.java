@@ -0,0 +1,140 @@
+// The reflective part that ObjectPrinter, FieldEquivalence and FieldComparator share: the
+// non-static fields of a class, each with a MethodHandle getter, looked up once per class and
+// kept in a ClassValue. Getters take the object as an Object and return the field's own type,
+// so primitive fields can be read without boxing.
+//
+// declared() lists the fields the class declares itself, in declaration order; fields of
+// classes that are not open to reflection, such as JDK classes, are listed without a getter.
+// all() adds the fields of the superclasses, superclass fields first, and leaves out classes
+// that are not open, Object among them. A superclass's accessors are shared with its subclasses.
+
+package ReflectionAPI;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class FieldAccessors {
+
+    private static final ClassValue<FieldAccessors> CACHE = new ClassValue<>() {
+        @Override
+        protected FieldAccessors computeValue(Class<?> type) {
+            return new FieldAccessors(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final List<Accessor> declared;
+    private final List<Accessor> all;
+
+    private FieldAccessors(Class<?> type) {
+        this.type = type;
+        this.declared = declaredFields(type);
+        List<Accessor> fields = new ArrayList<>();
+        Class<?> superclass = type.getSuperclass();
+        if (superclass != null && isOpen(superclass)) {
+            fields.addAll(of(superclass).all);
+        }
+        if (isOpen(type)) {
+            fields.addAll(declared);
+        }
+        this.all = List.copyOf(fields);
+    }
+
+    // The accessors of a class, resolved on first use
+    public static FieldAccessors of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    public Class<?> type() {
+        return type;
+    }
+
+    public List<Accessor> declared() {
+        return declared;
+    }
+
+    public List<Accessor> all() {
+        return all;
+    }
+
+    // A field of all() by name; a field hiding one of a superclass wins
+    public Accessor field(String name) {
+        for (int i = all.size() - 1; i >= 0; i--) {
+            if (all.get(i).name().equals(name)) {
+                return all.get(i);
+            }
+        }
+        throw new IllegalArgumentException("No field " + name + " in " + type.getName());
+    }
+
+    // Classes whose fields may be read: ours, not the JDK's
+    static boolean isOpen(Class<?> type) {
+        return type.getModule().isOpen(type.getPackageName(), FieldAccessors.class.getModule());
+    }
+
+    private static List<Accessor> declaredFields(Class<?> type) {
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException | SecurityException e) {
+            lookup = null;  // Every field is listed without a getter
+        }
+        List<Accessor> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            MethodHandle getter;
+            try {
+                getter = lookup == null ? null
+                        : lookup.unreflectGetter(field).asType(MethodType.methodType(field.getType(), Object.class));
+            } catch (IllegalAccessException e) {
+                getter = null;
+            }
+            fields.add(new Accessor(field, getter));
+        }
+        return List.copyOf(fields);
+    }
+
+    // One field and its getter, (Object) -> field type, or null when the field cannot be read
+    public record Accessor(Field field, MethodHandle getter) {
+
+        public String name() {
+            return field.getName();
+        }
+
+        public Class<?> type() {
+            return field.getType();
+        }
+
+        public boolean readable() {
+            return getter != null;
+        }
+
+        // The getter as (Object) -> Object, boxing primitive values
+        public MethodHandle objectGetter() {
+            return getter.asType(MethodType.methodType(Object.class, Object.class));
+        }
+
+        // The getter with byte, short and char widened to int and float to double, which keeps
+        // both their order and their equality, so callers have fewer types to handle. Throws an
+        // IllegalArgumentException for a field that cannot be read.
+        MethodHandle widenedGetter() {
+            if (getter == null) {
+                throw new IllegalArgumentException("Field " + name() + " of " + field.getDeclaringClass().getName() + " cannot be read");
+            }
+            Class<?> type = type();
+            if (type == byte.class || type == short.class || type == char.class) {
+                return getter.asType(MethodType.methodType(int.class, Object.class));
+            } else if (type == float.class) {
+                return getter.asType(MethodType.methodType(double.class, Object.class));
+            }
+            return getter;
+        }
+    }
+}
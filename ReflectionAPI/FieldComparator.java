@@ -0,0 +1,129 @@
+// Comparators built from fields, for classes such as the City model that have no natural order
+// of their own: FieldComparator.of(City.class, "countryCode", "population") orders cities by
+// country code and then by population, like a chain of Comparator.comparing calls would.
+// Primitive fields compare by value (Double.compare for floating point fields), other fields
+// must be Comparable and order nulls first. With no field names, all non-static fields of the
+// class and its superclasses are compared, in the order of FieldAccessors.all().
+//
+// The field getters come from FieldAccessors and are combined once into a single MethodHandle
+// per comparator, so comparing reads no Field objects and boxes nothing. Build a comparator
+// once and keep it; building one costs far more than a comparison.
+
+package ReflectionAPI;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public final class FieldComparator {
+
+    private static final MethodHandle COMPARE_INTS = helper("compare", int.class, int.class, int.class);
+    private static final MethodHandle COMPARE_LONGS = helper("compare", int.class, long.class, long.class);
+    private static final MethodHandle COMPARE_DOUBLES = helper("compare", int.class, double.class, double.class);
+    private static final MethodHandle COMPARE_BOOLEANS = helper("compare", int.class, boolean.class, boolean.class);
+    private static final MethodHandle COMPARE_OBJECTS = helper("compare", int.class, Comparable.class, Comparable.class);
+    private static final MethodHandle IS_ZERO = helper("isZero", boolean.class, int.class);
+
+    private FieldComparator() { }
+
+    // Order by the named fields, the first one deciding first; by all fields without names
+    public static <T> Comparator<T> of(Class<T> type, String... fieldNames) {
+        if (type.isPrimitive() || type.isArray() || !FieldAccessors.isOpen(type)) {
+            throw new IllegalArgumentException("Cannot read the fields of " + type.getName());
+        }
+        FieldAccessors accessors = FieldAccessors.of(type);
+        List<FieldAccessors.Accessor> fields = new ArrayList<>();
+        if (fieldNames.length == 0) {
+            fields.addAll(accessors.all());
+        }
+        for (String name : fieldNames) {
+            fields.add(accessors.field(name));
+        }
+
+        // c = compare(field0); c != 0 ? c : (c = compare(field1); c != 0 ? c : ... 0)
+        MethodHandle compare = MethodHandles.dropArguments(MethodHandles.constant(int.class, 0), 0, Object.class, Object.class);
+        for (int i = fields.size() - 1; i >= 0; i--) {
+            MethodHandle fieldCompare = fieldCompare(fields.get(i));
+            MethodHandle decided = MethodHandles.dropArguments(MethodHandles.identity(int.class), 1, Object.class, Object.class);
+            MethodHandle undecided = MethodHandles.dropArguments(compare, 0, int.class);
+            MethodHandle tie = MethodHandles.dropArguments(IS_ZERO, 1, Object.class, Object.class);
+            compare = MethodHandles.foldArguments(MethodHandles.guardWithTest(tie, undecided, decided), fieldCompare);
+        }
+        return new Compiled<>(type, compare);
+    }
+
+    // (Object, Object) -> int comparing one field
+    private static MethodHandle fieldCompare(FieldAccessors.Accessor field) {
+        MethodHandle getter = field.widenedGetter();
+        Class<?> type = getter.type().returnType();
+        MethodHandle compare;
+        if (type == int.class) {
+            compare = COMPARE_INTS;
+        } else if (type == long.class) {
+            compare = COMPARE_LONGS;
+        } else if (type == double.class) {
+            compare = COMPARE_DOUBLES;
+        } else if (type == boolean.class) {
+            compare = COMPARE_BOOLEANS;
+        } else if (Comparable.class.isAssignableFrom(type)) {
+            compare = COMPARE_OBJECTS.asType(MethodType.methodType(int.class, type, type));
+        } else {
+            throw new IllegalArgumentException("Field " + field.name() + " of " + field.field().getDeclaringClass().getName()
+                    + " is not comparable: " + type.getName());
+        }
+        return MethodHandles.filterArguments(compare, 0, getter, getter);
+    }
+
+    private record Compiled<T>(Class<T> type, MethodHandle compare) implements Comparator<T> {
+
+        @Override
+        public int compare(T a, T b) {
+            try {
+                return (int) compare.invokeExact((Object) a, (Object) b);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Reading a field of " + type.getName() + " failed", e);
+            }
+        }
+    }
+
+    private static MethodHandle helper(String name, Class<?> returnType, Class<?>... types) {
+        try {
+            return MethodHandles.lookup().findStatic(FieldComparator.class, name, MethodType.methodType(returnType, types));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int compare(int a, int b) {
+        return Integer.compare(a, b);
+    }
+
+    private static int compare(long a, long b) {
+        return Long.compare(a, b);
+    }
+
+    private static int compare(double a, double b) {
+        return Double.compare(a, b);
+    }
+
+    private static int compare(boolean a, boolean b) {
+        return Boolean.compare(a, b);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static int compare(Comparable a, Comparable b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static boolean isZero(int c) {
+        return c == 0;
+    }
+}
@@ -0,0 +1,327 @@
+// equals and hashCode for classes that do not define them, such as the City model, computed
+// from their fields. Two objects are equivalent when they are of the same class and every
+// non-static field of that class and its superclasses is equal: primitives by value (with the
+// semantics of Double.equals for floating point fields), arrays element by element, and other
+// objects by their own equals. The hash mixes the field hashes like Objects.hash does.
+//
+// Only the object itself is compared field by field. A field holding an object without an equals
+// of its own, or a collection of such objects, matches only the same instance, and every field
+// counts, lazily filled caches included. The Country model is therefore not a valid target: its
+// cities list is null until getCities() creates it, and it holds Cities, which compare by
+// identity. FieldEquivalenceTest below shows both cases.
+//
+// The field getters come from FieldAccessors. For each class they are combined once into a
+// single MethodHandle for equals and one for hashCode, so a call reads the fields without
+// boxing and without a loop over Field objects. wrap() puts a value in a Key that uses the
+// equivalence as its equals and hashCode, for HashMap keys, sets and Stream.distinct.
+
+package ReflectionAPI;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+public final class FieldEquivalence<T> {
+
+    private static final ClassValue<FieldEquivalence<?>> CACHE = new ClassValue<>() {
+        @Override
+        protected FieldEquivalence<?> computeValue(Class<?> type) {
+            return new FieldEquivalence<>(type);
+        }
+    };
+
+    private static final MethodHandle EQUAL_INTS = helper("equal", boolean.class, int.class, int.class);
+    private static final MethodHandle EQUAL_LONGS = helper("equal", boolean.class, long.class, long.class);
+    private static final MethodHandle EQUAL_DOUBLES = helper("equal", boolean.class, double.class, double.class);
+    private static final MethodHandle EQUAL_BOOLEANS = helper("equal", boolean.class, boolean.class, boolean.class);
+    private static final MethodHandle DEEP_HASH = helper("deepHash", int.class, Object.class);
+    private static final MethodHandle MIX = helper("mix", int.class, int.class, int.class);
+
+    private final Class<T> type;
+    private final MethodHandle equals;  // (Object, Object) -> boolean, the fields only
+    private final MethodHandle hash;    // (Object) -> int
+
+    private FieldEquivalence(Class<T> type) {
+        if (type.isPrimitive() || type.isArray() || !FieldAccessors.isOpen(type)) {
+            throw new IllegalArgumentException("Cannot read the fields of " + type.getName());
+        }
+        this.type = type;
+        List<FieldAccessors.Accessor> fields = FieldAccessors.of(type).all();
+
+        // equals: all fields equal, tested first to last, stopping at the first difference
+        MethodHandle no = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false), 0, Object.class, Object.class);
+        MethodHandle equal = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, true), 0, Object.class, Object.class);
+        for (int i = fields.size() - 1; i >= 0; i--) {
+            MethodHandle getter = fields.get(i).widenedGetter();
+            MethodHandle fieldEqual = MethodHandles.filterArguments(equality(getter.type().returnType()), 0, getter, getter);
+            equal = MethodHandles.guardWithTest(fieldEqual, equal, no);
+        }
+        this.equals = equal;
+
+        // hashCode: 31 * (... (31 * 1 + hash(field0)) ...) + hash(fieldN)
+        MethodHandle mixed = MethodHandles.dropArguments(MethodHandles.constant(int.class, 1), 0, Object.class);
+        for (FieldAccessors.Accessor field : fields) {
+            MethodHandle getter = field.widenedGetter();
+            MethodHandle fieldHash = MethodHandles.filterReturnValue(getter, hashing(getter.type().returnType()));
+            mixed = MethodHandles.permuteArguments(MethodHandles.filterArguments(MIX, 0, mixed, fieldHash),
+                    MethodType.methodType(int.class, Object.class), 0, 0);
+        }
+        this.hash = mixed;
+    }
+
+    // The equivalence of a class, built on first use
+    @SuppressWarnings("unchecked")
+    public static <T> FieldEquivalence<T> of(Class<T> type) {
+        return (FieldEquivalence<T>) CACHE.get(type);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    // Whether a and b are of the same class and have equal fields
+    public boolean equivalent(T a, T b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null || a.getClass() != b.getClass()) {
+            return false;
+        }
+        // A subclass has fields of its own, so it gets its own handles
+        FieldEquivalence<?> exact = a.getClass() == type ? this : CACHE.get(a.getClass());
+        try {
+            return (boolean) exact.equals.invokeExact((Object) a, (Object) b);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Reading a field of " + a.getClass().getName() + " failed", e);
+        }
+    }
+
+    // A hash of the fields, consistent with equivalent; 0 for null
+    public int hash(T value) {
+        if (value == null) {
+            return 0;
+        }
+        FieldEquivalence<?> exact = value.getClass() == type ? this : CACHE.get(value.getClass());
+        try {
+            return (int) exact.hash.invokeExact((Object) value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Reading a field of " + value.getClass().getName() + " failed", e);
+        }
+    }
+
+    // The value with this equivalence as its equals and hashCode
+    public Key<T> wrap(T value) {
+        return new Key<>(this, value);
+    }
+
+    // The stream without values equivalent to an earlier one
+    public Stream<T> distinct(Stream<T> values) {
+        return values.map(this::wrap).distinct().map(Key::get);
+    }
+
+    // A value as a HashMap key or set element, compared through its fields
+    public static final class Key<T> {
+        private final FieldEquivalence<T> equivalence;
+        private final T value;
+
+        private Key(FieldEquivalence<T> equivalence, T value) {
+            this.equivalence = equivalence;
+            this.value = value;
+        }
+
+        public T get() {
+            return value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean equals(Object o) {
+            return o instanceof Key<?> other && other.equivalence == equivalence
+                    && equivalence.equivalent(value, (T) other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return equivalence.hash(value);
+        }
+
+        @Override
+        public String toString() {
+            return ObjectPrinter.toString(value);
+        }
+    }
+
+    // (type, type) -> boolean for a field type, after FieldAccessors.Accessor.widenedGetter
+    private static MethodHandle equality(Class<?> type) {
+        if (type == int.class) {
+            return EQUAL_INTS;
+        } else if (type == long.class) {
+            return EQUAL_LONGS;
+        } else if (type == double.class) {
+            return EQUAL_DOUBLES;
+        } else if (type == boolean.class) {
+            return EQUAL_BOOLEANS;
+        } else if (type.isArray()) {
+            return arrays("equals", "deepEquals", boolean.class, type, type);
+        } else if (Modifier.isFinal(type.getModifiers())) {
+            return objects("equals", boolean.class, Object.class, Object.class).asType(MethodType.methodType(boolean.class, type, type));
+        }
+        // Declared as a supertype, the value may still be an array
+        return objects("deepEquals", boolean.class, Object.class, Object.class).asType(MethodType.methodType(boolean.class, type, type));
+    }
+
+    // (type) -> int for a field type, consistent with equality(type)
+    private static MethodHandle hashing(Class<?> type) {
+        if (type.isPrimitive()) {
+            Class<?> box = MethodType.methodType(type).wrap().returnType();
+            try {
+                return MethodHandles.publicLookup().findStatic(box, "hashCode", MethodType.methodType(int.class, type));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        } else if (type.isArray()) {
+            return arrays("hashCode", "deepHashCode", int.class, type);
+        } else if (Modifier.isFinal(type.getModifiers())) {
+            return objects("hashCode", int.class, Object.class).asType(MethodType.methodType(int.class, type));
+        }
+        return DEEP_HASH.asType(MethodType.methodType(int.class, type));
+    }
+
+    // The Arrays method for an array type: the overload for a primitive array, the deep one for
+    // any array of objects
+    private static MethodHandle arrays(String name, String deepName, Class<?> returnType, Class<?>... types) {
+        try {
+            if (types[0].getComponentType().isPrimitive()) {
+                return MethodHandles.publicLookup().findStatic(Arrays.class, name, MethodType.methodType(returnType, types));
+            }
+            Class<?>[] objectArrays = new Class<?>[types.length];
+            Arrays.fill(objectArrays, Object[].class);
+            return MethodHandles.publicLookup().findStatic(Arrays.class, deepName, MethodType.methodType(returnType, objectArrays))
+                    .asType(MethodType.methodType(returnType, types));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle objects(String name, Class<?> returnType, Class<?>... types) {
+        try {
+            return MethodHandles.publicLookup().findStatic(Objects.class, name, MethodType.methodType(returnType, types));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle helper(String name, Class<?> returnType, Class<?>... types) {
+        try {
+            return MethodHandles.lookup().findStatic(FieldEquivalence.class, name, MethodType.methodType(returnType, types));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean equal(int a, int b) {
+        return a == b;
+    }
+
+    private static boolean equal(long a, long b) {
+        return a == b;
+    }
+
+    // Like Double.equals: NaN equals NaN, 0.0 does not equal -0.0
+    private static boolean equal(double a, double b) {
+        return Double.compare(a, b) == 0;
+    }
+
+    private static boolean equal(boolean a, boolean b) {
+        return a == b;
+    }
+
+    // Objects.deepEquals compares arrays held in fields of a supertype, so they hash by content too
+    private static int deepHash(Object o) {
+        if (o != null && o.getClass().isArray()) {
+            return Arrays.deepHashCode(new Object[] { o });
+        }
+        return Objects.hashCode(o);
+    }
+
+    private static int mix(int hash, int fieldHash) {
+        return 31 * hash + fieldHash;
+    }
+}
+
+class FieldEquivalenceTest {
+    public static void main(String[] args) {
+        FieldEquivalence<Point> points = FieldEquivalence.of(Point.class);
+        FieldEquivalence<Team> teams = FieldEquivalence.of(Team.class);
+
+        // Fields of values: equal fields make equivalent objects with equal hashes
+        Point a = new Point(1, 2.5, "a");
+        Point b = new Point(1, 2.5, "a");
+        check(points.equivalent(a, b) && points.hash(a) == points.hash(b), "equal fields are equivalent");
+        check(!points.equivalent(a, new Point(1, 2.5, "b")), "a different field is not equivalent");
+        check(points.equivalent(new Point(0, Double.NaN, null), new Point(0, Double.NaN, null)), "NaN equals NaN, like Double.equals");
+        check(points.distinct(Stream.of(a, b, a)).count() == 1, "distinct keeps one of equivalent points");
+
+        // A lazily created field counts: null and an empty list differ, like Country.cities
+        Team first = new Team("Blue");
+        Team second = new Team("Blue");
+        check(teams.equivalent(first, second), "teams before members() are equivalent");
+        second.members();
+        check(!teams.equivalent(first, second), "a created members list makes teams differ");
+
+        // Elements without an equals of their own compare by identity, like Cities in Country.cities
+        first.members().add(a);
+        second.members().add(a);
+        check(teams.equivalent(first, second), "the same point instance matches");
+        second.members().set(0, b);
+        check(!teams.equivalent(first, second), "an equivalent but different point does not match");
+
+        System.out.println("FieldEquivalence: all checks passed"); // Output: FieldEquivalence: all checks passed
+    }
+
+    private static void check(boolean condition, String expectation) {
+        if (!condition) {
+            throw new AssertionError("Expected: " + expectation);
+        }
+    }
+}
+
+// A value class without equals and hashCode
+class Point {
+    private final int x;
+    private final double y;
+    private final String label;
+
+    Point(int x, double y, String label) {
+        this.x = x;
+        this.y = y;
+        this.label = label;
+    }
+}
+
+// Holds a list that is only created on first use, like Country
+class Team {
+    private final String name;
+    private List<Point> members;
+
+    Team(String name) {
+        this.name = name;
+    }
+
+    List<Point> members() {
+        if (members == null) {
+            members = new ArrayList<>();
+        }
+        return members;
+    }
+}
@@ -0,0 +1,506 @@
+// A faster version of the exercise: ToString looks up the fields of a class, makes them
+// accessible and reads them through Field.get on every call. ObjectPrinter takes the getters
+// of FieldAccessors, looked up once per class, and keeps a printer per class in a ClassValue.
+// The getters are typed to the field, so primitive values are appended without boxing, and the
+// "fieldName: fieldType = " text in front of each value is built once as well.
+//
+// The output has the format of the last exercise: classname{fieldName: fieldType = value, ...},
+// static fields left out, and arrays printed as [val1, val2, ...] with at most 15 values
+// before "...". Fields that cannot be read, such as those of JDK classes in modules that are
+// not open to reflection, are printed as "fieldName: fieldType = <inaccessible>".
+//
+// For high-volume logging, appendTo writes into a builder the caller reuses, and writeTo into a
+// Writer or CharBuffer through a reusable per-thread buffer. Primitive fields, primitive arrays,
+// boxed numbers and strings are copied straight into the output, doubles and floats included
+// (see appendDouble), so printing such objects allocates nothing; only other objects still go
+// through their own toString.
+//
+// appendGraph renders a whole object graph in the same format: inherited fields are included,
+// referenced objects, arrays, collections and maps are printed recursively instead of through
+// their own toString, and an identity map of the objects being printed turns cycles into
+// <cycle: classname> markers. Objects deeper than maxDepth are cut to classname{...}, and the
+// output stops with "..." after maxChars characters. Everything is written straight into the
+// caller's Appendable, so a huge graph never becomes a huge string first. Objects of JDK classes
+// are printed with their own toString, except arrays, collections and maps.
+
+package ReflectionAPI;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public final class ObjectPrinter {
+
+    private static final int MAX_ARRAY_VALUES = 15;
+    private static final long[] POWERS_OF_TEN = { 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000 };
+    private static final int MAX_RETAINED_CHARS = 1 << 16;  // Larger scratch buffers are not kept
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private static final ClassValue<Layout> LAYOUTS = new ClassValue<>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+            return new Layout(type);
+        }
+    };
+
+    private static final ClassValue<GraphField[]> GRAPH_LAYOUTS = new ClassValue<>() {
+        @Override
+        protected GraphField[] computeValue(Class<?> type) {
+            return graphFields(type);
+        }
+    };
+
+    private ObjectPrinter() { }
+
+    // Print any object with all its non-static fields
+    public static String toString(Object o) {
+        if (o == null) {
+            return "null";
+        }
+        Layout layout = LAYOUTS.get(o.getClass());
+        StringBuilder out = new StringBuilder(layout.sizeHint);
+        layout.print(o, out);
+        layout.sizeHint = out.length();  // A racy hint is fine, it only sizes the next builder
+        return out.toString();
+    }
+
+    // Same, appending to a builder the caller owns
+    public static StringBuilder appendTo(Object o, StringBuilder out) {
+        if (o == null) {
+            return out.append("null");
+        }
+        LAYOUTS.get(o.getClass()).print(o, out);
+        return out;
+    }
+
+    // Same, written to a Writer through this thread's reusable buffer
+    public static void writeTo(Object o, Writer out) throws IOException {
+        Scratch scratch = Scratch.acquire();
+        try {
+            int length = scratch.render(o);
+            out.write(scratch.chars, 0, length);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    // Same, put into a CharBuffer, which must have room for the whole text
+    public static void writeTo(Object o, CharBuffer out) {
+        Scratch scratch = Scratch.acquire();
+        try {
+            int length = scratch.render(o);
+            out.put(scratch.chars, 0, length);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    // Render the object graph below o, at most maxDepth objects deep and maxChars characters long
+    public static <A extends Appendable> A appendGraph(Object o, A out, int maxDepth, int maxChars) throws IOException {
+        if (maxDepth < 1 || maxChars < 0) {
+            throw new IllegalArgumentException("Invalid limits: maxDepth " + maxDepth + ", maxChars " + maxChars);
+        }
+        new GraphWriter(out, maxDepth, maxChars).value(o, 1);
+        return out;
+    }
+
+    // Same, into a new string
+    public static String toGraphString(Object o, int maxDepth, int maxChars) {
+        try {
+            return appendGraph(o, new StringBuilder(Math.min(maxChars, 1024)), maxDepth, maxChars).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // A StringBuilder does not throw
+        }
+    }
+
+    // Appends one field, its name and type included
+    private interface FieldPrinter {
+        void print(Object o, StringBuilder out) throws Throwable;
+    }
+
+    // The fields of one class, resolved once
+    private static final class Layout {
+        final String open;
+        final FieldPrinter[] fields;
+        int sizeHint = 64;
+
+        Layout(Class<?> type) {
+            open = type.getName() + "{";
+            List<FieldPrinter> printers = new ArrayList<>();
+            for (FieldAccessors.Accessor field : FieldAccessors.of(type).declared()) {
+                String prefix = (printers.isEmpty() ? "" : ", ") + field.name() + ": " + field.type().getName() + " = ";
+                printers.add(printer(field, prefix));
+            }
+            fields = printers.toArray(FieldPrinter[]::new);
+        }
+
+        void print(Object o, StringBuilder out) {
+            out.append(open);
+            try {
+                for (FieldPrinter field : fields) {
+                    field.print(o, out);
+                }
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Reading a field of " + o.getClass().getName() + " failed", e);
+            }
+            out.append('}');
+        }
+    }
+
+    private static FieldPrinter printer(FieldAccessors.Accessor field, String prefix) {
+        MethodHandle getter = field.getter();
+        if (getter == null) {
+            return (o, out) -> out.append(prefix).append("<inaccessible>");
+        }
+
+        // invokeExact needs the exact type, so every kind of field gets its own printer
+        Class<?> type = field.type();
+        if (type == int.class || type == short.class || type == byte.class) {
+            MethodHandle h = getter.asType(MethodType.methodType(int.class, Object.class));
+            return (o, out) -> out.append(prefix).append((int) h.invokeExact(o));
+        } else if (type == long.class) {
+            MethodHandle h = getter.asType(MethodType.methodType(long.class, Object.class));
+            return (o, out) -> out.append(prefix).append((long) h.invokeExact(o));
+        } else if (type == double.class) {
+            MethodHandle h = getter.asType(MethodType.methodType(double.class, Object.class));
+            return (o, out) -> appendDouble((double) h.invokeExact(o), out.append(prefix));
+        } else if (type == float.class) {
+            MethodHandle h = getter.asType(MethodType.methodType(float.class, Object.class));
+            return (o, out) -> appendFloat((float) h.invokeExact(o), out.append(prefix));
+        } else if (type == boolean.class) {
+            MethodHandle h = getter.asType(MethodType.methodType(boolean.class, Object.class));
+            return (o, out) -> out.append(prefix).append((boolean) h.invokeExact(o));
+        } else if (type == char.class) {
+            MethodHandle h = getter.asType(MethodType.methodType(char.class, Object.class));
+            return (o, out) -> out.append(prefix).append((char) h.invokeExact(o));
+        }
+        MethodHandle h = getter.asType(MethodType.methodType(Object.class, Object.class));
+        return (o, out) -> {
+            Object value = (Object) h.invokeExact(o);
+            out.append(prefix);
+            if (value != null && value.getClass().isArray()) {
+                appendArray(value, out);
+            } else {
+                appendValue(value, out);
+            }
+        };
+    }
+
+    // Strings and boxed primitives are copied in directly, without a toString
+    private static void appendValue(Object value, StringBuilder out) {
+        switch (value) {
+            case null -> out.append("null");
+            case String string -> out.append(string);
+            case Integer number -> out.append(number.intValue());
+            case Long number -> out.append(number.longValue());
+            case Double number -> appendDouble(number, out);
+            case Boolean bool -> out.append(bool.booleanValue());
+            case Character character -> out.append(character.charValue());
+            case Short number -> out.append(number.shortValue());
+            case Byte number -> out.append(number.byteValue());
+            case Float number -> appendFloat(number, out);
+            case CharSequence chars -> out.append(chars);
+            default -> out.append(value.toString());
+        }
+    }
+
+    // StringBuilder.append(double) builds its digits in a buffer of its own. Values that
+    // Double.toString prints as a plain decimal with at most 8 fraction digits are written here
+    // from a long instead, with the same text; anything else is left to the JDK.
+    private static void appendDouble(double d, StringBuilder out) {
+        double abs = Math.abs(d);
+        if (abs == 0 || abs >= 1e-3 && abs < 1e7) {
+            for (int k = 0; k < POWERS_OF_TEN.length; k++) {
+                long m = Math.round(abs * POWERS_OF_TEN[k]);
+                if (m / (double) POWERS_OF_TEN[k] == abs) {
+                    appendDecimal(Math.copySign(1.0, d) < 0, m, k, out);
+                    return;
+                }
+            }
+        }
+        out.append(d);
+    }
+
+    // The same for floats: an 8 digit decimal is never close enough to a float halfway point for
+    // the division in double to round differently from Float.toString
+    private static void appendFloat(float f, StringBuilder out) {
+        float abs = Math.abs(f);
+        if (abs == 0 || abs >= 1e-3f && abs < 1e7f) {
+            for (int k = 0; k < POWERS_OF_TEN.length; k++) {
+                double scaled = (double) abs * POWERS_OF_TEN[k];  // Exact: 24 bits times at most 27
+                long m = Math.round(scaled);
+                if (scaled == m - 0.5 && (m & 1) == 1 && (float) ((m - 1) / (double) POWERS_OF_TEN[k]) == abs) {
+                    m--;  // Halfway between two decimals, Float.toString takes the even one
+                }
+                if ((float) (m / (double) POWERS_OF_TEN[k]) == abs) {
+                    appendDecimal(Math.copySign(1.0f, f) < 0, m, k, out);
+                    return;
+                }
+            }
+        }
+        out.append(f);
+    }
+
+    // m / 10^k with k fraction digits, or with ".0" when k is 0
+    private static void appendDecimal(boolean negative, long m, int k, StringBuilder out) {
+        if (negative) {
+            out.append('-');
+        }
+        long power = POWERS_OF_TEN[k];
+        out.append(m / power).append('.');
+        if (k == 0) {
+            out.append('0');
+            return;
+        }
+        long fraction = m % power;
+        for (long p = power / 10; p > fraction; p /= 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+
+    // [val1, val2, ...] for arrays of any element type, primitive ones without boxing
+    private static void appendArray(Object array, StringBuilder out) {
+        int length = Array.getLength(array);
+        int shown = Math.min(length, MAX_ARRAY_VALUES);
+        out.append('[');
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            appendElement(array, i, out);
+        }
+        if (length > MAX_ARRAY_VALUES) {
+            out.append(", ...");
+        }
+        out.append(']');
+    }
+
+    private static void appendElement(Object array, int i, StringBuilder out) {
+        switch (array) {
+            case Object[] a -> appendValue(a[i], out);
+            case int[] a -> out.append(a[i]);
+            case long[] a -> out.append(a[i]);
+            case double[] a -> appendDouble(a[i], out);
+            case byte[] a -> out.append(a[i]);
+            case char[] a -> out.append(a[i]);
+            case boolean[] a -> out.append(a[i]);
+            case float[] a -> appendFloat(a[i], out);
+            case short[] a -> out.append(a[i]);
+            default -> throw new IllegalArgumentException("Not an array: " + array.getClass().getName());
+        }
+    }
+
+    // A field of a graph layout, read as an Object
+    private record GraphField(String prefix, MethodHandle getter) { }
+
+    // Fields of the class and its superclasses, superclass fields first. Superclasses that are
+    // not open to reflection, such as Object, contribute none.
+    private static GraphField[] graphFields(Class<?> type) {
+        List<FieldAccessors.Accessor> accessors = FieldAccessors.of(type).all();
+        GraphField[] fields = new GraphField[accessors.size()];
+        for (int i = 0; i < fields.length; i++) {
+            FieldAccessors.Accessor field = accessors.get(i);
+            String prefix = (i == 0 ? "" : ", ") + field.name() + ": " + field.type().getName() + " = ";
+            fields[i] = new GraphField(prefix, field.readable() ? field.objectGetter() : null);
+        }
+        return fields;
+    }
+
+    // Writes one graph, counting characters against the budget
+    private static final class GraphWriter {
+        private final Appendable out;
+        private final int maxDepth;
+        private int remaining;
+        private boolean truncated;
+        private final IdentityHashMap<Object, Boolean> path = new IdentityHashMap<>();  // Objects being printed
+
+        GraphWriter(Appendable out, int maxDepth, int maxChars) {
+            this.out = out;
+            this.maxDepth = maxDepth;
+            this.remaining = maxChars;
+        }
+
+        void write(CharSequence text) throws IOException {
+            if (truncated) {
+                return;
+            }
+            if (text.length() <= remaining) {
+                out.append(text);
+                remaining -= text.length();
+            } else {
+                out.append(text, 0, remaining).append("...");
+                remaining = 0;
+                truncated = true;
+            }
+        }
+
+        void value(Object value, int depth) throws IOException {
+            if (truncated) {
+                return;
+            }
+            if (value == null) {
+                write("null");
+                return;
+            }
+            Class<?> type = value.getClass();
+            boolean container = type.isArray() || value instanceof Collection || value instanceof Map;
+            if (!container && (!FieldAccessors.isOpen(type) || value instanceof Enum)) {
+                write(String.valueOf(value));
+                return;
+            }
+            if (path.containsKey(value)) {
+                write("<cycle: " + type.getName() + ">");
+                return;
+            }
+            if (depth > maxDepth) {
+                write(value instanceof Map ? "{...}" : container ? "[...]" : type.getName() + "{...}");
+                return;
+            }
+            path.put(value, Boolean.TRUE);
+            if (type.isArray()) {
+                elements(new ArrayElements(value), Array.getLength(value), depth);
+            } else if (value instanceof Collection<?> collection) {
+                elements(collection, collection.size(), depth);
+            } else if (value instanceof Map<?, ?> map) {
+                entries(map, depth);
+            } else {
+                fields(value, depth);
+            }
+            path.remove(value);
+        }
+
+        private void fields(Object value, int depth) throws IOException {
+            write(value.getClass().getName());
+            write("{");
+            for (GraphField field : GRAPH_LAYOUTS.get(value.getClass())) {
+                if (truncated) {
+                    return;
+                }
+                write(field.prefix());
+                if (field.getter() == null) {
+                    write("<inaccessible>");
+                    continue;
+                }
+                Object fieldValue;
+                try {
+                    fieldValue = (Object) field.getter().invokeExact(value);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Reading a field of " + value.getClass().getName() + " failed", e);
+                }
+                value(fieldValue, depth + 1);
+            }
+            write("}");
+        }
+
+        private void elements(Iterable<?> elements, int size, int depth) throws IOException {
+            write("[");
+            int i = 0;
+            for (Object element : elements) {
+                if (i == MAX_ARRAY_VALUES || truncated) {
+                    break;
+                }
+                if (i++ > 0) {
+                    write(", ");
+                }
+                value(element, depth + 1);
+            }
+            if (size > MAX_ARRAY_VALUES) {
+                write(", ...");
+            }
+            write("]");
+        }
+
+        private void entries(Map<?, ?> map, int depth) throws IOException {
+            write("{");
+            int i = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (i == MAX_ARRAY_VALUES || truncated) {
+                    break;
+                }
+                if (i++ > 0) {
+                    write(", ");
+                }
+                value(entry.getKey(), depth + 1);
+                write("=");
+                value(entry.getValue(), depth + 1);
+            }
+            if (map.size() > MAX_ARRAY_VALUES) {
+                write(", ...");
+            }
+            write("}");
+        }
+    }
+
+    // The elements of an array of any type; primitive ones are boxed one at a time
+    private record ArrayElements(Object array) implements Iterable<Object> {
+        @Override
+        public Iterator<Object> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < Array.getLength(array);
+                }
+
+                @Override
+                public Object next() {
+                    return Array.get(array, next++);
+                }
+            };
+        }
+    }
+
+    // A per-thread text buffer and char array for writeTo. Printing a field can call writeTo
+    // again on the same thread; such nested calls get a buffer of their own.
+    private static final class Scratch {
+        StringBuilder text = new StringBuilder(256);
+        char[] chars = new char[256];
+        boolean busy;
+
+        static Scratch acquire() {
+            Scratch scratch = SCRATCH.get();
+            if (scratch.busy) {
+                return new Scratch();
+            }
+            scratch.busy = true;
+            return scratch;
+        }
+
+        // Render into the char array, returning the length of the text
+        int render(Object o) {
+            text.setLength(0);
+            appendTo(o, text);
+            int length = text.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            text.getChars(0, length, chars, 0);
+            return length;
+        }
+
+        void release() {
+            if (text.capacity() > MAX_RETAINED_CHARS) {
+                text = new StringBuilder(256);
+                chars = new char[256];
+            }
+            busy = false;
+        }
+    }
+}
@@ -14,7 +14,6 @@
 package ReflectionAPI;
 
 import java.lang.reflect.*;
-import java.util.Arrays;
 
 public class ToString {
 
@@ -84,7 +83,8 @@ public class ToString {
         return result.toString();
     }
 
-    // Fifth version: Handle arrays
+    // Fifth version: Handle arrays. Elements are read through java.lang.reflect.Array, which works for
+    // primitive arrays such as int[] as well as for object arrays.
     public static String toStringWithArrayHandling(Object o) {
         StringBuilder result = new StringBuilder();
         Class<?> clazz = o.getClass();
@@ -94,25 +94,26 @@ public class ToString {
         for (Field field : fields) {
             if (Modifier.isStatic(field.getModifiers())) continue;
             field.setAccessible(true); // Make sure the private fields are accessible
+            if (!first) result.append(", ");
+            first = false;
             try {
                 Object value = field.get(o);
+                result.append(field.getName())
+                      .append(": ")
+                      .append(field.getType().getName())
+                      .append(" = ");
                 if (value != null && value.getClass().isArray()) {
-                    Object[] array = (Object[]) value;
-                    result.append(field.getName()).append(": ")
-                          .append(field.getType().getName())
-                          .append(" = [")
-                          .append(Arrays.toString(Arrays.copyOfRange(array, 0, Math.min(array.length, 15))));
-                    if (array.length > 15) result.append(", ...");
+                    int length = Array.getLength(value);
+                    result.append("[");
+                    for (int i = 0; i < Math.min(length, 15); i++) {
+                        if (i > 0) result.append(", ");
+                        result.append(Array.get(value, i));
+                    }
+                    if (length > 15) result.append(", ...");
                     result.append("]");
                 } else {
-                    if (!first) result.append(", ");
-                    result.append(field.getName())
-                          .append(": ")
-                          .append(field.getType().getName())
-                          .append(" = ")
-                          .append(value != null ? value.toString() : "null");
+                    result.append(value != null ? value.toString() : "null");
                 }
-                first = false;
             } catch (IllegalAccessException e) {
                 result.append(field.getName()).append(": inaccessible");
             }
@@ -120,6 +121,12 @@ public class ToString {
         result.append("}");
         return result.toString();
     }
+
+    // Sixth version: Render the whole object graph, inherited fields and referenced objects included,
+    // cycle-safe and cut off after maxDepth levels or maxChars characters (see ObjectPrinter.appendGraph)
+    public static String toStringDeep(Object o, int maxDepth, int maxChars) {
+        return ObjectPrinter.toGraphString(o, maxDepth, maxChars);
+    }
 }
 
 class ToStringTest {
@@ -145,7 +152,19 @@ class ToStringTest {
         System.out.println();
 
         System.out.println("Fifth version (array handling):");
-        System.out.println(ToString.toStringWithArrayHandling(p)); // Output: Person{name: java.lang.String = Hans, age: int = 25, numbers: [I = [1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16], ...}
+        System.out.println(ToString.toStringWithArrayHandling(p)); // Output: Person{name: java.lang.String = Hans, age: int = 25, numbers: [I = [1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, ...]}
+        System.out.println();
+
+        System.out.println("Cached version (field layout resolved once per class, see ObjectPrinter):");
+        System.out.println(ObjectPrinter.toString(p)); // Output: ReflectionAPI.Person{name: java.lang.String = Hans, age: int = 25, numbers: [I = [1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, ...]}
+        System.out.println();
+
+        System.out.println("Sixth version (object graph):");
+        Employee manager = new Employee("Grete", 41, new int[]{7}, null);
+        Employee employee = new Employee("Hans", 25, new int[]{1, 2, 3}, manager);
+        manager.reports.add(employee); // A cycle: employee -> manager -> reports -> employee
+        System.out.println(ToString.toStringDeep(employee, 8, 1000)); // Output: ReflectionAPI.Employee{name: java.lang.String = Hans, ..., manager: ReflectionAPI.Employee = ReflectionAPI.Employee{..., reports: java.util.List = [<cycle: ReflectionAPI.Employee>]}}
+        System.out.println(ToString.toStringDeep(employee, 8, 60)); // Output: the first 60 characters, then ...
     }
 }
 
@@ -175,4 +194,15 @@ class Person {
     public int[] getNumbers() {
         return numbers;
     }
-}
\ No newline at end of file
+}
+
+class Employee extends Person {
+    Employee manager;
+    java.util.List<Employee> reports = new java.util.ArrayList<>();
+
+    // Constructor
+    public Employee(String name, int age, int[] numbers, Employee manager) {
+        super(name, age, numbers);
+        this.manager = manager;
+    }
+}
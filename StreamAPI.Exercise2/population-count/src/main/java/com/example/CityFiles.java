@@ -0,0 +1,411 @@
+package com.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.example.Model.City;
+import com.example.Model.CityTable;
+import com.example.Model.Country;
+
+/**
+ * Reads and writes city dumps as CSV, one {@code id,name,countryCode,population} line per
+ * city (UTF-8). Names may contain commas, because the other fields are found from both ends
+ * of the line. Lines starting with '#' are skipped, and so is a header line at the start of
+ * the file. Country dumps, which are small, are read whole by {@link #loadCountries(Path)}.
+ *
+ * <p>Files are read through a fixed-size buffer, never all at once, so they may be larger
+ * than the heap. {@link #cities(Path)} streams them lazily: a parallel stream splits the file
+ * into byte ranges that start at line breaks, and each range is read by its own positional
+ * reads on the shared channel. Numbers are parsed straight from the bytes, and country codes
+ * come from a small per-range cache instead of a new String per line. {@link #loadTable(Path)}
+ * copies names into a {@link CityTable} as bytes, without any String at all.
+ */
+public final class CityFiles {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long MIN_SPLIT = 4L << 20;  // Smaller ranges are not split further
+
+    private CityFiles() { }
+
+    /**
+     * Lazily parsed cities of a CSV file, in file order. The stream holds the file open until
+     * it is closed, so use it in a try-with-resources block.
+     */
+    public static Stream<City> cities(Path csv) throws IOException {
+        FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ);
+        try {
+            CitySpliterator spliterator = new CitySpliterator(channel, 0, channel.size());
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read a whole CSV file into columns
+     */
+    public static CityTable loadTable(Path csv) throws IOException {
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            CityTable.Builder builder = new CityTable.Builder((int) Math.min(1 << 24, channel.size() / 24 + 1));
+            CitySpliterator reader = new CitySpliterator(channel, 0, channel.size());
+            while (reader.readRow((id, bytes, nameStart, nameLength, countryCode, population) ->
+                    builder.add(id, bytes, nameStart, nameLength, countryCode, population))) {
+                // Every row went to the builder
+            }
+            return builder.build();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Read a country CSV file with {@code code,name,continent,population,surfaceArea,gnp,capital}
+     * lines. Names may contain commas; the same header and comment rules apply as for cities.
+     */
+    public static List<Country> loadCountries(Path csv) throws IOException {
+        List<Country> countries = new ArrayList<>();
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#") || i == 0 && line.startsWith("code,")) {
+                continue;
+            }
+            int nameStart = line.indexOf(',') + 1;
+            int[] commas = new int[5];  // The five commas before the trailing fields
+            int comma = line.length();
+            for (int j = commas.length - 1; j >= 0; j--) {
+                comma = line.lastIndexOf(',', comma - 1);
+                commas[j] = comma;
+            }
+            if (nameStart == 0 || commas[0] < nameStart) {
+                throw new IllegalArgumentException("Malformed country line " + (i + 1) + ": " + line);
+            }
+            try {
+                countries.add(new Country(
+                        line.substring(0, nameStart - 1),
+                        line.substring(nameStart, commas[0]),
+                        line.substring(commas[0] + 1, commas[1]),
+                        Integer.parseInt(line.substring(commas[1] + 1, commas[2])),
+                        Double.parseDouble(line.substring(commas[2] + 1, commas[3])),
+                        Double.parseDouble(line.substring(commas[3] + 1, commas[4])),
+                        Integer.parseInt(line.substring(commas[4] + 1))));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed country line " + (i + 1) + ": " + line, e);
+            }
+        }
+        return countries;
+    }
+
+    /**
+     * Write cities as CSV, with a header line
+     */
+    public static void writeCsv(Iterator<City> cities, Path csv) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("id,name,countryCode,population\n");
+            while (cities.hasNext()) {
+                City city = cities.next();
+                writer.write(Integer.toString(city.getId()));
+                writer.write(',');
+                writer.write(city.getName());
+                writer.write(',');
+                writer.write(city.getCountryCode());
+                writer.write(',');
+                writer.write(Integer.toString(city.getPopulation()));
+                writer.write('\n');
+            }
+        }
+    }
+
+    // Receives one parsed line; the name is still raw UTF-8 in the read buffer
+    private interface RowSink {
+        void accept(int id, byte[] bytes, int nameStart, int nameLength, String countryCode, int population);
+    }
+
+    // Reads the lines of the byte range [start, end), which begins at a line start. Splits
+    // are only taken before reading starts; each half then reads on its own.
+    private static final class CitySpliterator implements Spliterator<City> {
+        private final FileChannel channel;
+        private final CodeCache codes = new CodeCache();
+        private long start;
+        private final long end;
+        private long filePosition;  // File offset of buffer[limit]
+        private byte[] buffer;
+        private int position;
+        private int limit;
+        private int lineStart;  // Bounds of the line nextLine() found
+        private int lineEnd;
+        private boolean started;
+
+        CitySpliterator(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.filePosition = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super City> action) {
+            City[] city = new City[1];
+            boolean found = readRow((id, bytes, nameStart, nameLength, countryCode, population) ->
+                    city[0] = new City(id, new String(bytes, nameStart, nameLength, StandardCharsets.UTF_8), countryCode, population));
+            if (found) {
+                action.accept(city[0]);
+            }
+            return found;
+        }
+
+        @Override
+        public Spliterator<City> trySplit() {
+            if (started || end - start < 2 * MIN_SPLIT) {
+                return null;
+            }
+            long middle = nextLineStart(start + (end - start) / 2);
+            if (middle >= end) {
+                return null;
+            }
+            CitySpliterator prefix = new CitySpliterator(channel, start, middle);
+            start = middle;
+            filePosition = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return (end - start) / 24;  // Rough bytes per line
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+
+        // Parse the next city line into the sink, returning false at the end of the range
+        boolean readRow(RowSink sink) {
+            boolean firstLine = !started && start == 0;
+            if (!started) {
+                started = true;
+                buffer = new byte[BUFFER_BYTES];
+            }
+            while (nextLine()) {
+                if (lineEnd > lineStart && buffer[lineEnd - 1] == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd == lineStart || buffer[lineStart] == '#' || firstLine && isHeader()) {
+                    firstLine = false;
+                    continue;
+                }
+                int firstComma = indexOf(lineStart, lineEnd);
+                int lastComma = lastIndexOf(lineStart, lineEnd);
+                int codeComma = lastIndexOf(firstComma + 1, lastComma);
+                if (firstComma < 0 || codeComma <= firstComma) {
+                    throw malformed();
+                }
+                sink.accept(parseInt(lineStart, firstComma), buffer, firstComma + 1, codeComma - firstComma - 1,
+                        codes.get(buffer, codeComma + 1, lastComma), parseInt(lastComma + 1, lineEnd));
+                return true;
+            }
+            return false;
+        }
+
+        // A header names the columns instead of starting with an id
+        private boolean isHeader() {
+            byte first = buffer[lineStart];
+            return first != '-' && (first < '0' || first > '9');
+        }
+
+        // Find the next line in the buffer, refilling it as needed; sets lineStart and lineEnd
+        private boolean nextLine() {
+            int scanFrom = position;
+            while (true) {
+                for (int i = scanFrom; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        lineStart = position;
+                        lineEnd = i;
+                        position = i + 1;
+                        return true;
+                    }
+                }
+                if (filePosition >= end) {
+                    if (position < limit) {  // Last line without a line break
+                        lineStart = position;
+                        lineEnd = limit;
+                        position = limit;
+                        return true;
+                    }
+                    return false;
+                }
+                scanFrom = limit - position;
+                fill();
+            }
+        }
+
+        // Move the unread bytes to the front and read more behind them
+        private void fill() {
+            int remaining = limit - position;
+            if (remaining == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);  // A line longer than the buffer
+            } else {
+                System.arraycopy(buffer, position, buffer, 0, remaining);
+            }
+            position = 0;
+            limit = remaining;
+            ByteBuffer target = ByteBuffer.wrap(buffer, limit, (int) Math.min(buffer.length - limit, end - filePosition));
+            try {
+                while (target.hasRemaining()) {
+                    int read = channel.read(target, filePosition);
+                    if (read < 0) {
+                        throw new IOException("File shrank while reading");
+                    }
+                    filePosition += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            limit = target.position();
+        }
+
+        // Offset of the first line break at or after the given file offset, plus one
+        private long nextLineStart(long offset) {
+            ByteBuffer window = ByteBuffer.allocate(4096);
+            try {
+                while (offset < end) {
+                    window.clear();
+                    int read = channel.read(window, offset);
+                    if (read <= 0) {
+                        break;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        if (window.get(i) == '\n') {
+                            return offset + i + 1;
+                        }
+                    }
+                    offset += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return end;
+        }
+
+        private int indexOf(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (buffer[i] == ',') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int lastIndexOf(int from, int to) {
+            for (int i = to - 1; i >= from; i--) {
+                if (buffer[i] == ',') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int parseInt(int from, int to) {
+            boolean negative = from < to && buffer[from] == '-';
+            int i = negative ? from + 1 : from;
+            if (i == to) {
+                throw malformed();
+            }
+            long value = 0;
+            for (; i < to; i++) {
+                int digit = buffer[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw malformed();
+                }
+                value = value * 10 + digit;
+                if (value > Integer.MAX_VALUE + 1L) {
+                    throw malformed();
+                }
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw malformed();
+            }
+            return (int) value;
+        }
+
+        private IllegalArgumentException malformed() {
+            long offset = filePosition - (limit - lineStart);
+            return new IllegalArgumentException("Malformed city line at byte " + offset);
+        }
+    }
+
+    // Country codes seen in one byte range. Codes of up to seven bytes are keyed by their
+    // packed bytes, so finding a known code allocates nothing.
+    private static final class CodeCache {
+        private long[] keys = new long[64];  // 0 marks a free slot
+        private String[] values = new String[64];
+        private int size;
+
+        String get(byte[] bytes, int from, int to) {
+            int length = to - from;
+            if (length > 7) {
+                return new String(bytes, from, length, StandardCharsets.UTF_8);
+            }
+            long key = 1L << 63 | (long) length << 56;  // Never 0, and codes of different lengths differ
+            for (int i = from; i < to; i++) {
+                key |= (long) (bytes[i] & 0xFF) << (8 * (i - from));
+            }
+            int mask = keys.length - 1;
+            int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            String code = new String(bytes, from, length, StandardCharsets.UTF_8).intern();
+            keys[slot] = key;
+            values[slot] = code;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return code;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = Long.hashCode(oldKeys[i] * 0x9E3779B97F4A7C15L) & mask;
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
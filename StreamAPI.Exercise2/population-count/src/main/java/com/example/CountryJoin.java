@@ -0,0 +1,208 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+import com.example.Model.City;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
+
+/**
+ * Joins cities to their countries through a prebuilt {@link CountryTable}, which serves as the
+ * country dimension: its codes are interned and map to dense ids, so finding a city's country
+ * is one hash lookup with no map built per query. A join is immutable and can be shared by
+ * any number of queries and threads.
+ *
+ * <p>Cities whose country code is not in the table are orphans, and the {@link Orphans}
+ * policy says what becomes of them instead of leaving it to a null check.
+ *
+ * <p>{@link #groupBy(Stream, Function, Collector)} groups cities by any attribute of their
+ * country, such as the continent, a region or a GNP band. The key function runs once per
+ * country rather than once per city, and the cities then go straight to an array of
+ * per-group accumulators indexed by country id.
+ *
+ * <p>{@link #highestPopulatedByCountry()} and {@link #highestPopulatedByContinent()} skip the
+ * map and the {@code Optional} of {@code groupingBy(..., maxBy(...))}: they collect into a
+ * {@code City[]} indexed by country id or continent id of the table, with null for a group
+ * without cities.
+ */
+public final class CountryJoin {
+
+    /**
+     * What to do with cities of a country code that is not in the table
+     */
+    public enum Orphans {
+        /** Leave them out */
+        SKIP,
+        /** Throw an IllegalArgumentException */
+        FAIL,
+        /** Keep them, without a country: {@link Joined#country()} is null and groups report them apart */
+        KEEP
+    }
+
+    /**
+     * A city with its country, which is null for orphans kept by {@link Orphans#KEEP}
+     */
+    public record Joined(City city, Country country) {
+        public boolean isOrphan() {
+            return country == null;
+        }
+    }
+
+    /**
+     * Groups of cities by a country attribute, in the order the groups first appear in the
+     * country table, and the same downstream result over the orphan cities
+     */
+    public record Grouped<K, R>(Map<K, R> groups, R orphans) { }
+
+    private final CountryTable countries;
+    private final Orphans orphans;
+    private final Country[] views;  // Country objects built once, shared by all joined rows
+
+    public CountryJoin(CountryTable countries, Orphans orphans) {
+        this.countries = Objects.requireNonNull(countries, "countries");
+        this.orphans = Objects.requireNonNull(orphans, "orphans");
+        this.views = new Country[countries.size()];
+        for (int id = 0; id < views.length; id++) {
+            views[id] = countries.country(id);
+        }
+    }
+
+    /**
+     * Attach its country to every city, applying the orphan policy
+     */
+    public Stream<Joined> join(Stream<City> cities) {
+        return cities.mapMulti((City city, Consumer<Joined> downstream) -> {
+            int id = countryId(city);
+            if (id >= 0) {
+                downstream.accept(new Joined(city, views[id]));
+            } else if (orphans == Orphans.KEEP) {
+                downstream.accept(new Joined(city, null));
+            }
+        });
+    }
+
+    /**
+     * Group cities by a key taken from their country and reduce every group with the
+     * downstream collector. Parallel streams give the same result as sequential ones.
+     */
+    public <K, A, R> Grouped<K, R> groupBy(Stream<City> cities, Function<? super Country, ? extends K> key,
+            Collector<? super City, A, R> downstream) {
+        // Evaluate the key once per country and number the distinct keys densely
+        Map<K, Integer> groupOfKey = new HashMap<>();
+        List<K> keys = new ArrayList<>();
+        int[] groupOfCountry = new int[views.length];
+        for (int id = 0; id < views.length; id++) {
+            K groupKey = key.apply(views[id]);
+            groupOfCountry[id] = groupOfKey.computeIfAbsent(groupKey, k -> {
+                keys.add(k);
+                return keys.size() - 1;
+            });
+        }
+        int orphanGroup = keys.size();
+
+        Supplier<A> supplier = downstream.supplier();
+        BiConsumer<A, ? super City> accumulator = downstream.accumulator();
+        BinaryOperator<A> combiner = downstream.combiner();
+        Object[] merged = cities.collect(Collector.of(
+                () -> new Object[orphanGroup + 1],
+                (groups, city) -> {
+                    int id = countryId(city);
+                    if (id < 0 && orphans == Orphans.SKIP) {
+                        return;
+                    }
+                    int group = id >= 0 ? groupOfCountry[id] : orphanGroup;
+                    if (groups[group] == null) {
+                        groups[group] = supplier.get();
+                    }
+                    accumulator.accept(cast(groups[group]), city);
+                },
+                (left, right) -> {
+                    for (int group = 0; group < left.length; group++) {
+                        if (left[group] == null) {
+                            left[group] = right[group];
+                        } else if (right[group] != null) {
+                            left[group] = combiner.apply(cast(left[group]), cast(right[group]));
+                        }
+                    }
+                    return left;
+                }));
+
+        Function<A, R> finisher = downstream.finisher();
+        Map<K, R> groups = new LinkedHashMap<>();
+        for (int group = 0; group < orphanGroup; group++) {
+            if (merged[group] != null) {
+                groups.put(keys.get(group), finisher.apply(cast(merged[group])));
+            }
+        }
+        A orphanAccumulator = merged[orphanGroup] != null ? cast(merged[orphanGroup]) : supplier.get();
+        return new Grouped<>(groups, finisher.apply(orphanAccumulator));
+    }
+
+    /**
+     * Most populated city per country: element {@code id} belongs to country {@code id} of the
+     * table. Orphans have no element and are left out, unless the policy rejects them. Between
+     * equal populations the city met first in encounter order wins, like {@code maxBy}.
+     */
+    public Collector<City, ?, City[]> highestPopulatedByCountry() {
+        return highestPopulatedBy(views.length, id -> id);
+    }
+
+    /**
+     * Most populated city per continent: element {@code id} belongs to continent {@code id},
+     * in the order of {@link CountryTable#continents()}. Orphans are left out as above.
+     */
+    public Collector<City, ?, City[]> highestPopulatedByContinent() {
+        return highestPopulatedBy(countries.continents().size(), countries::continentId);
+    }
+
+    private Collector<City, ?, City[]> highestPopulatedBy(int groups, IntUnaryOperator groupOfCountry) {
+        return Collector.of(
+                () -> new City[groups],
+                (maxima, city) -> {
+                    int id = countryId(city);
+                    if (id >= 0) {
+                        int group = groupOfCountry.applyAsInt(id);
+                        if (maxima[group] == null || city.getPopulation() > maxima[group].getPopulation()) {
+                            maxima[group] = city;
+                        }
+                    }
+                },
+                (left, right) -> {
+                    // The right cities come later, so they only win with a higher population
+                    for (int group = 0; group < groups; group++) {
+                        if (right[group] != null
+                                && (left[group] == null || right[group].getPopulation() > left[group].getPopulation())) {
+                            left[group] = right[group];
+                        }
+                    }
+                    return left;
+                });
+    }
+
+    // Country id of a city, or -1 for an orphan once the policy allows it
+    private int countryId(City city) {
+        int id = countries.idOf(city.getCountryCode());
+        if (id < 0 && orphans == Orphans.FAIL) {
+            throw new IllegalArgumentException("Unknown country code: " + city.getCountryCode() + " of " + city);
+        }
+        return id;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> A cast(Object accumulator) {
+        return (A) accumulator;
+    }
+}
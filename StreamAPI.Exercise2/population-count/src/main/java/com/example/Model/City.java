@@ -16,6 +16,10 @@ public class City {
     }
 
     // Getters and setters
+    public int getId() {
+        return id;
+    }
+
     public String getName() {
         return name; // Add this getter for name
     }
@@ -0,0 +1,155 @@
+package com.example.Model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cities stored column by column in primitive arrays instead of one object per city.
+ *
+ * <p>Country codes are dictionary-encoded: {@link #countryCodeId(int)} indexes
+ * {@link #countryCodes()}, so the codes are stored once each. Names are kept as UTF-8 bytes
+ * in one array, with the end offset of every name in another. A city then costs about
+ * sixteen bytes plus its name, where a {@link City} object with its own name String costs
+ * several times that, and a scan over a column reads memory sequentially.
+ * {@link #city(int)} builds a {@link City} view of a row on demand.
+ */
+public final class CityTable {
+
+    private final int size;
+    private final int[] ids;
+    private final int[] populations;
+    private final int[] countryCodeIds;
+    private final List<String> countryCodes;
+    private final byte[] names;
+    private final int[] nameEnds;
+
+    private CityTable(Builder builder) {
+        size = builder.size;
+        ids = Arrays.copyOf(builder.ids, size);
+        populations = Arrays.copyOf(builder.populations, size);
+        countryCodeIds = Arrays.copyOf(builder.countryCodeIds, size);
+        countryCodes = List.copyOf(builder.countryCodes);
+        names = Arrays.copyOf(builder.names, builder.nameLength);
+        nameEnds = Arrays.copyOf(builder.nameEnds, size);
+    }
+
+    public static CityTable of(List<City> cities) {
+        Builder builder = new Builder(cities.size());
+        for (City city : cities) {
+            builder.add(city.getId(), city.getName(), city.getCountryCode(), city.getPopulation());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int id(int row) {
+        return ids[row];
+    }
+
+    public int population(int row) {
+        return populations[row];
+    }
+
+    public int countryCodeId(int row) {
+        return countryCodeIds[row];
+    }
+
+    /**
+     * Distinct country codes in order of first appearance
+     */
+    public List<String> countryCodes() {
+        return countryCodes;
+    }
+
+    public String name(int row) {
+        int start = row == 0 ? 0 : nameEnds[row - 1];
+        return new String(names, start, nameEnds[row] - start, StandardCharsets.UTF_8);
+    }
+
+    public City city(int row) {
+        return new City(ids[row], name(row), countryCodes.get(countryCodeIds[row]), populations[row]);
+    }
+
+    /**
+     * Appends cities row by row, growing the columns as needed
+     */
+    public static final class Builder {
+        private int size;
+        private int[] ids;
+        private int[] populations;
+        private int[] countryCodeIds;
+        private final List<String> countryCodes = new ArrayList<>();
+        private final Map<String, Integer> countryCodeIdsByCode = new HashMap<>();
+        private byte[] names;
+        private int nameLength;
+        private int[] nameEnds;
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            ids = new int[capacity];
+            populations = new int[capacity];
+            countryCodeIds = new int[capacity];
+            nameEnds = new int[capacity];
+            names = new byte[capacity * 8];
+        }
+
+        public Builder add(int id, String name, String countryCode, int population) {
+            return add(id, name.getBytes(StandardCharsets.UTF_8), countryCode, population);
+        }
+
+        /**
+         * Same as {@link #add(int, String, String, int)} with the name already encoded as UTF-8
+         */
+        public Builder add(int id, byte[] utf8Name, String countryCode, int population) {
+            return add(id, utf8Name, 0, utf8Name.length, countryCode, population);
+        }
+
+        /**
+         * Same as {@link #add(int, byte[], String, int)} with the name taken from a slice of a
+         * larger buffer, such as a read buffer, so no array per name is needed
+         */
+        public Builder add(int id, byte[] bytes, int nameStart, int length, String countryCode, int population) {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                populations = Arrays.copyOf(populations, capacity);
+                countryCodeIds = Arrays.copyOf(countryCodeIds, capacity);
+                nameEnds = Arrays.copyOf(nameEnds, capacity);
+            }
+            if (names.length - nameLength < length) {
+                long needed = (long) nameLength + length;
+                if (needed > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("City names exceed 2 GB");
+                }
+                names = Arrays.copyOf(names, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, names.length * 3L / 2)));
+            }
+            System.arraycopy(bytes, nameStart, names, nameLength, length);
+            nameLength += length;
+
+            ids[size] = id;
+            populations[size] = population;
+            countryCodeIds[size] = countryCodeIdsByCode.computeIfAbsent(countryCode, code -> {
+                countryCodes.add(code);
+                return countryCodes.size() - 1;
+            });
+            nameEnds[size] = nameLength;
+            size++;
+            return this;
+        }
+
+        public CityTable build() {
+            return new CityTable(this);
+        }
+    }
+}
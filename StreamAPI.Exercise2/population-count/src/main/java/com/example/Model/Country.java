@@ -11,11 +11,7 @@ public class Country {
     private int population;
     private double gnp;
     private int capital;
-    private List<City> cities;
-
-    {
-        cities = new ArrayList<>();
-    }
+    private List<City> cities;  // Created on first use, most countries never need one
 
     public Country() {}
 
@@ -59,6 +55,9 @@ public class Country {
     }
 
     public List<City> getCities() {
+        if (cities == null) {
+            cities = new ArrayList<>();
+        }
         return cities;
     }
 
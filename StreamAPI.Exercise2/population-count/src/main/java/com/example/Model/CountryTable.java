@@ -0,0 +1,95 @@
+package com.example.Model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Countries stored column by column. Row numbers double as dense country ids, and the
+ * continents are dictionary-encoded: {@link #continentId(int)} indexes {@link #continents()}.
+ * {@link #country(int)} builds a {@link Country} view of a row on demand.
+ */
+public final class CountryTable {
+
+    private final String[] codes;
+    private final String[] names;
+    private final int[] continentIds;
+    private final List<String> continents;
+    private final double[] surfaceAreas;
+    private final int[] populations;
+    private final double[] gnps;
+    private final int[] capitals;
+    private final Map<String, Integer> idsByCode;
+
+    private CountryTable(List<Country> countries) {
+        int size = countries.size();
+        codes = new String[size];
+        names = new String[size];
+        continentIds = new int[size];
+        surfaceAreas = new double[size];
+        populations = new int[size];
+        gnps = new double[size];
+        capitals = new int[size];
+        idsByCode = new HashMap<>(size * 4 / 3 + 1);
+        Map<String, Integer> continentIdsByName = new HashMap<>();
+        List<String> continentNames = new ArrayList<>();
+        for (int id = 0; id < size; id++) {
+            Country country = countries.get(id);
+            if (idsByCode.putIfAbsent(country.getCode().intern(), id) != null) {
+                throw new IllegalArgumentException("Duplicate country code: " + country.getCode());
+            }
+            codes[id] = country.getCode().intern();  // Codes read from files are interned too, so equals is ==
+            names[id] = country.getName();
+            continentIds[id] = continentIdsByName.computeIfAbsent(country.getContinent(), continent -> {
+                continentNames.add(continent);
+                return continentNames.size() - 1;
+            });
+            surfaceAreas[id] = country.getSurfaceArea();
+            populations[id] = country.getPopulation();
+            gnps[id] = country.getGnp();
+            capitals[id] = country.getCapital();
+        }
+        continents = List.copyOf(continentNames);
+    }
+
+    public static CountryTable of(List<Country> countries) {
+        return new CountryTable(countries);
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Id of the country with the given code, or -1 if there is none
+     */
+    public int idOf(String code) {
+        Integer id = idsByCode.get(code);
+        return id == null ? -1 : id;
+    }
+
+    public String code(int id) {
+        return codes[id];
+    }
+
+    public int continentId(int id) {
+        return continentIds[id];
+    }
+
+    /**
+     * Distinct continents in order of first appearance
+     */
+    public List<String> continents() {
+        return continents;
+    }
+
+    public int population(int id) {
+        return populations[id];
+    }
+
+    public Country country(int id) {
+        return new Country(codes[id], names[id], continents.get(continentIds[id]), populations[id],
+                surfaceAreas[id], gnps[id], capitals[id]);
+    }
+}
@@ -0,0 +1,272 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+import com.example.Model.City;
+import com.example.Model.CityTable;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
+
+/**
+ * Finds the highest populated city of every country and of every continent in a single
+ * parallel pass over the cities.
+ *
+ * <p>Country codes are mapped to small integer ids up front, so each chunk of cities only
+ * updates a {@code long[]} indexed by country id. A slot packs the population into its high
+ * half and the complemented city index into its low half, so one {@code Math.max} picks the
+ * larger population and, between equal populations, the city that comes first, just like
+ * {@code Collectors.maxBy}. Chunks are merged element by element, and the continent maxima
+ * are folded from the country maxima instead of from the cities.
+ *
+ * <p>Cities whose country code is not in the country list still get a per-country maximum,
+ * but are left out of the per-continent one.
+ *
+ * <p>The same query runs over {@link CityTable} and {@link CountryTable} columns, where the
+ * country codes are already dictionary-encoded and no city object is touched at all.
+ *
+ * <p>{@link #toMaxima(CountryTable)} answers the query as a stream collector that keeps only
+ * the current maximum per country, so it runs while the cities are still being read, for
+ * instance from {@link CityFiles#cities(java.nio.file.Path)}, in memory bounded by the
+ * number of countries.
+ */
+public final class PopulationAggregator {
+
+    private static final int CHUNK = 1 << 16;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private PopulationAggregator() { }
+
+    /**
+     * Highest populated city per country code and per continent. Both maps list the
+     * countries and continents in the order of the country list, orphan country codes last.
+     */
+    public record Maxima(Map<String, City> byCountry, Map<String, City> byContinent) { }
+
+    public static Maxima highestPopulated(List<City> cityList, List<Country> countries) {
+        List<City> cities = cityList instanceof RandomAccess ? cityList : new ArrayList<>(cityList);
+        Map<String, Integer> countryIds = new HashMap<>();
+        List<String> continents = countries.stream().map(Country::getContinent).distinct().toList();
+        int[] continentOf = new int[countries.size()];
+        for (int id = 0; id < countries.size(); id++) {
+            Country country = countries.get(id);
+            if (countryIds.putIfAbsent(country.getCode(), id) != null) {
+                throw new IllegalArgumentException("Duplicate country code: " + country.getCode());
+            }
+            continentOf[id] = continents.indexOf(country.getContinent());
+        }
+
+        // Orphan codes get ids past the known countries as they are met
+        Map<String, Integer> orphanIds = new ConcurrentHashMap<>();
+        AtomicInteger nextOrphanId = new AtomicInteger(countries.size());
+
+        int chunks = (cities.size() + CHUNK - 1) / CHUNK;
+        long[] byCountry = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    long[] best = newAccumulator(countries.size());
+                    int end = Math.min(cities.size(), (chunk + 1) * CHUNK);
+                    for (int i = chunk * CHUNK; i < end; i++) {
+                        City city = cities.get(i);
+                        Integer id = countryIds.get(city.getCountryCode());
+                        if (id == null) {
+                            id = orphanIds.computeIfAbsent(city.getCountryCode(), code -> nextOrphanId.getAndIncrement());
+                        }
+                        if (id >= best.length) {
+                            best = grow(best, id + 1);
+                        }
+                        best[id] = Math.max(best[id], pack(city.getPopulation(), i));
+                    }
+                    return best;
+                })
+                .reduce(PopulationAggregator::merge)
+                .orElseGet(() -> newAccumulator(0));
+
+        String[] codes = new String[nextOrphanId.get()];
+        countryIds.forEach((code, id) -> codes[id] = code);
+        orphanIds.forEach((code, id) -> codes[id] = code);
+
+        long[] byContinent = newAccumulator(continents.size());
+        Map<String, City> countryMaxima = new LinkedHashMap<>();
+        for (int id = 0; id < byCountry.length; id++) {
+            if (byCountry[id] != NONE) {
+                countryMaxima.put(codes[id], cities.get(cityIndex(byCountry[id])));
+                if (id < continentOf.length) {
+                    int continent = continentOf[id];
+                    byContinent[continent] = Math.max(byContinent[continent], byCountry[id]);
+                }
+            }
+        }
+        Map<String, City> continentMaxima = new LinkedHashMap<>();
+        for (int continent = 0; continent < byContinent.length; continent++) {
+            if (byContinent[continent] != NONE) {
+                continentMaxima.put(continents.get(continent), cities.get(cityIndex(byContinent[continent])));
+            }
+        }
+        return new Maxima(countryMaxima, continentMaxima);
+    }
+
+    /**
+     * Same query over columnar tables. Only the columns are read; {@link City} views are
+     * built for the winning rows alone.
+     */
+    public static Maxima highestPopulated(CityTable cities, CountryTable countries) {
+        // Translate the city table's code dictionary to country ids once
+        List<String> codes = cities.countryCodes();
+        int[] countryOfCode = new int[codes.size()];
+        for (int codeId = 0; codeId < codes.size(); codeId++) {
+            countryOfCode[codeId] = countries.idOf(codes.get(codeId));
+        }
+
+        int chunks = (cities.size() + CHUNK - 1) / CHUNK;
+        long[] byCode = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    long[] best = newAccumulator(codes.size());
+                    int end = Math.min(cities.size(), (chunk + 1) * CHUNK);
+                    for (int row = chunk * CHUNK; row < end; row++) {
+                        int codeId = cities.countryCodeId(row);
+                        best[codeId] = Math.max(best[codeId], pack(cities.population(row), row));
+                    }
+                    return best;
+                })
+                .reduce(PopulationAggregator::merge)
+                .orElseGet(() -> newAccumulator(codes.size()));
+
+        // Known countries first, in country table order, then orphan codes
+        long[] byContinent = newAccumulator(countries.continents().size());
+        Map<String, City> countryMaxima = new LinkedHashMap<>();
+        int[] codeOfCountry = new int[countries.size()];
+        Arrays.fill(codeOfCountry, -1);
+        for (int codeId = 0; codeId < codes.size(); codeId++) {
+            if (countryOfCode[codeId] >= 0) {
+                codeOfCountry[countryOfCode[codeId]] = codeId;
+            }
+        }
+        for (int country = 0; country < countries.size(); country++) {
+            int codeId = codeOfCountry[country];
+            if (codeId >= 0 && byCode[codeId] != NONE) {
+                countryMaxima.put(codes.get(codeId), cities.city(cityIndex(byCode[codeId])));
+                int continent = countries.continentId(country);
+                byContinent[continent] = Math.max(byContinent[continent], byCode[codeId]);
+            }
+        }
+        for (int codeId = 0; codeId < codes.size(); codeId++) {
+            if (countryOfCode[codeId] < 0 && byCode[codeId] != NONE) {
+                countryMaxima.put(codes.get(codeId), cities.city(cityIndex(byCode[codeId])));
+            }
+        }
+        Map<String, City> continentMaxima = new LinkedHashMap<>();
+        for (int continent = 0; continent < byContinent.length; continent++) {
+            if (byContinent[continent] != NONE) {
+                continentMaxima.put(countries.continents().get(continent), cities.city(cityIndex(byContinent[continent])));
+            }
+        }
+        return new Maxima(countryMaxima, continentMaxima);
+    }
+
+    /**
+     * Collector form of the query for streams of any length. Between equal populations the
+     * city met first in encounter order wins, in parallel streams too.
+     */
+    public static Collector<City, ?, Maxima> toMaxima(CountryTable countries) {
+        return Collector.<City, Running, Maxima>of(
+                () -> new Running(countries.continents().size()),
+                (running, city) -> running.add(city, countries),
+                Running::merge,
+                running -> {
+                    // Known countries first, in country table order, then orphan codes as met
+                    Map<String, City> countryMaxima = new LinkedHashMap<>();
+                    for (int country = 0; country < countries.size(); country++) {
+                        City city = running.byCountry.get(countries.code(country));
+                        if (city != null) {
+                            countryMaxima.put(countries.code(country), city);
+                        }
+                    }
+                    running.byCountry.forEach(countryMaxima::putIfAbsent);
+                    Map<String, City> continentMaxima = new LinkedHashMap<>();
+                    for (int continent = 0; continent < running.byContinent.length; continent++) {
+                        if (running.byContinent[continent] != null) {
+                            continentMaxima.put(countries.continents().get(continent), running.byContinent[continent]);
+                        }
+                    }
+                    return new Maxima(countryMaxima, continentMaxima);
+                });
+    }
+
+    // Maxima of the cities collected so far
+    private static final class Running {
+        final Map<String, City> byCountry = new LinkedHashMap<>();
+        final City[] byContinent;
+
+        Running(int continents) {
+            byContinent = new City[continents];
+        }
+
+        void add(City city, CountryTable countries) {
+            byCountry.merge(city.getCountryCode(), city, PopulationAggregator::higher);
+            int country = countries.idOf(city.getCountryCode());
+            if (country >= 0) {
+                int continent = countries.continentId(country);
+                byContinent[continent] = byContinent[continent] == null ? city : higher(byContinent[continent], city);
+            }
+        }
+
+        // The other cities come later in encounter order
+        Running merge(Running later) {
+            later.byCountry.forEach((code, city) -> byCountry.merge(code, city, PopulationAggregator::higher));
+            for (int continent = 0; continent < byContinent.length; continent++) {
+                City city = later.byContinent[continent];
+                if (city != null) {
+                    byContinent[continent] = byContinent[continent] == null ? city : higher(byContinent[continent], city);
+                }
+            }
+            return this;
+        }
+    }
+
+    // The earlier city wins a tie
+    private static City higher(City earlier, City later) {
+        return later.getPopulation() > earlier.getPopulation() ? later : earlier;
+    }
+
+    // Higher population wins, then the lower city index
+    static long pack(int population, int cityIndex) {
+        return ((long) population << 32) | (~cityIndex & 0xFFFFFFFFL);
+    }
+
+    static int cityIndex(long packed) {
+        return ~(int) packed;
+    }
+
+    private static long[] newAccumulator(int size) {
+        long[] accumulator = new long[size];
+        Arrays.fill(accumulator, NONE);
+        return accumulator;
+    }
+
+    private static long[] grow(long[] accumulator, int minSize) {
+        long[] grown = Arrays.copyOf(accumulator, Math.max(minSize, accumulator.length * 2));
+        Arrays.fill(grown, accumulator.length, grown.length, NONE);
+        return grown;
+    }
+
+    private static long[] merge(long[] a, long[] b) {
+        if (a.length < b.length) {
+            long[] swap = a;
+            a = b;
+            b = swap;
+        }
+        for (int i = 0; i < b.length; i++) {
+            a[i] = Math.max(a[i], b[i]);
+        }
+        return a;
+    }
+}
@@ -11,14 +11,24 @@
 
 package com.example;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.example.Model.City;
+import com.example.Model.CityTable;
 import com.example.Model.Country;
+import com.example.Model.CountryTable;
 
 public class PopulationCount {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2) {
+            printDumpMaxima(Path.of(args[0]), Path.of(args[1]));
+            return;
+        }
+
         // Sample data
         List<Country> countries = List.of(
             new Country("US", "United States", "North America", 331000000, 9833517, 21000000, 0),
@@ -34,11 +44,7 @@ public class PopulationCount {
 
         // Task 1: Find the highest populated city of each country
         System.out.println("Exercise 1: Highest populated city of each country:");
-        Map<String, Optional<City>> highestPopulatedCityByCountry = cities.stream()
-            .collect(Collectors.groupingBy(
-                City::getCountryCode, 
-                Collectors.maxBy(Comparator.comparingInt(City::getPopulation))
-            ));
+        Map<String, Optional<City>> highestPopulatedCityByCountry = highestPopulatedCityByCountry(cities);
 
         highestPopulatedCityByCountry.forEach((countryCode, city) ->
             System.out.println("Country Code: " + countryCode + ", City: " + city.orElse(null))
@@ -48,17 +54,74 @@ public class PopulationCount {
 
         // Task 2: Find the highest populated city of each continent
         System.out.println("Exercise 2: Highest populated city of each continent:");
-        Map<String, Country> countryMap = countries.stream()
-            .collect(Collectors.toMap(Country::getCode, country -> country));
+        Map<String, Optional<City>> highestPopulatedCityByContinent = highestPopulatedCityByContinent(cities, countries);
+
+        highestPopulatedCityByContinent.forEach((continent, city) ->
+            System.out.println("Continent: " + continent + ", City: " + city.orElse(null))
+        );
+
+        System.out.println();
+
+        // Both tasks at once, in a single parallel pass over columnar tables (see PopulationAggregator)
+        System.out.println("Both exercises in one pass:");
+        PopulationAggregator.Maxima maxima = PopulationAggregator.highestPopulated(
+            CityTable.of(cities), CountryTable.of(countries));
+        maxima.byCountry().forEach((countryCode, city) ->
+            System.out.println("Country Code: " + countryCode + ", City: " + city)
+        );
+        maxima.byContinent().forEach((continent, city) ->
+            System.out.println("Continent: " + continent + ", City: " + city)
+        );
+    }
 
-        Map<String, Optional<City>> highestPopulatedCityByContinent = cities.stream()
+    // Both tasks over dump files: cities.csv is streamed and aggregated while it is read,
+    // so it may be larger than the heap (see CityFiles)
+    private static void printDumpMaxima(Path citiesCsv, Path countriesCsv) throws IOException {
+        CountryTable countries = CountryTable.of(CityFiles.loadCountries(countriesCsv));
+        PopulationAggregator.Maxima maxima;
+        try (Stream<City> cities = CityFiles.cities(citiesCsv)) {
+            maxima = cities.parallel().collect(PopulationAggregator.toMaxima(countries));
+        }
+        maxima.byCountry().forEach((countryCode, city) ->
+            System.out.println("Country Code: " + countryCode + ", City: " + city)
+        );
+        maxima.byContinent().forEach((continent, city) ->
+            System.out.println("Continent: " + continent + ", City: " + city)
+        );
+    }
+
+    // Task 1 with collectors: group the cities by country code, keep the most populated one
+    public static Map<String, Optional<City>> highestPopulatedCityByCountry(List<City> cities) {
+        return cities.stream()
             .collect(Collectors.groupingBy(
-                city -> countryMap.get(city.getCountryCode()).getContinent(),
+                City::getCountryCode, 
                 Collectors.maxBy(Comparator.comparingInt(City::getPopulation))
             ));
+    }
 
-        highestPopulatedCityByContinent.forEach((continent, city) ->
-            System.out.println("Continent: " + continent + ", City: " + city.orElse(null))
-        );
+    // Task 2 with collectors: join each city to its continent, group by it, keep the most populated city.
+    // Cities of unknown countries have no continent and are left out.
+    public static Map<String, Optional<City>> highestPopulatedCityByContinent(List<City> cities, List<Country> countries) {
+        return highestPopulatedCityByContinent(cities, new CountryJoin(CountryTable.of(countries), CountryJoin.Orphans.SKIP));
+    }
+
+    // Same with a country join built once and reused across queries
+    public static Map<String, Optional<City>> highestPopulatedCityByContinent(List<City> cities, CountryJoin countries) {
+        return countries.groupBy(cities.stream(), Country::getContinent,
+            Collectors.maxBy(Comparator.comparingInt(City::getPopulation))).groups();
+    }
+
+    // Task 2 without a map or Optionals: result[id] is the most populated city of continent
+    // countries.continents().get(id), or null if it has no city
+    public static City[] highestPopulatedCityByContinentId(List<City> cities, CountryJoin countries) {
+        return cities.stream().collect(countries.highestPopulatedByContinent());
+    }
+
+    // Population of the most populated city of a country, empty if it has no city
+    public static OptionalInt highestPopulation(List<City> cities, String countryCode) {
+        return cities.stream()
+            .filter(city -> city.getCountryCode().equals(countryCode))
+            .mapToInt(City::getPopulation)
+            .max();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,263 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.example.Model.City;
+import com.example.Model.CountryTable;
+
+/**
+ * The most populated cities of every country and every continent, kept current as cities are
+ * added, revised and removed, instead of recomputed from all cities for every question.
+ *
+ * <p>Every country and continent keeps its cities in a sorted set, so an update costs
+ * O(log n). The index answers at most {@code maxK} cities per group: after each update it
+ * rebuilds the top-{@code maxK} arrays of the groups the update touched, in O(maxK), and
+ * publishes them in a new immutable {@link Snapshot}. Readers never lock; a snapshot answers
+ * any number of queries in O(k) each, all from the same state of the index.
+ *
+ * <p>Cities are identified by id; putting a city with a known id revises it, also when it
+ * moved to another country. Between equal populations the lower id ranks first. Cities of a
+ * country code missing from the country table are ranked per country but not per continent.
+ */
+public final class TopCitiesIndex {
+
+    private static final Comparator<City> RANKING =
+            Comparator.comparingInt(City::getPopulation).reversed().thenComparingInt(City::getId);
+    private static final City[] NONE = new City[0];
+
+    private final CountryTable countries;
+    private final int maxK;
+
+    // Writer state, guarded by this
+    private final Map<Integer, City> citiesById = new HashMap<>();
+    private final List<NavigableSet<City>> byCountry = new ArrayList<>();
+    private final List<NavigableSet<City>> byContinent = new ArrayList<>();
+    private final Map<String, Integer> groupOfCode = new HashMap<>();
+    private long version;
+
+    private volatile Snapshot snapshot;
+
+    public TopCitiesIndex(CountryTable countries, int maxK) {
+        if (maxK < 1) {
+            throw new IllegalArgumentException("maxK must be positive: " + maxK);
+        }
+        this.countries = countries;
+        this.maxK = maxK;
+        City[][] countryTops = new City[countries.size()][];
+        for (int id = 0; id < countries.size(); id++) {
+            groupOfCode.put(countries.code(id), id);
+            byCountry.add(new TreeSet<>(RANKING));
+            countryTops[id] = NONE;
+        }
+        City[][] continentTops = new City[countries.continents().size()][];
+        for (int continent = 0; continent < continentTops.length; continent++) {
+            byContinent.add(new TreeSet<>(RANKING));
+            continentTops[continent] = NONE;
+        }
+        snapshot = new Snapshot(0, 0, maxK, Map.copyOf(groupOfCode), countryTops, continentTops, countries.continents());
+    }
+
+    /**
+     * Add a city, or revise the city with the same id
+     */
+    public synchronized void put(City city) {
+        putAll(List.of(city));
+    }
+
+    /**
+     * Add or revise many cities, publishing one snapshot for all of them
+     */
+    public synchronized void putAll(Collection<City> cities) {
+        Changes changes = new Changes();
+        for (City city : cities) {
+            City old = citiesById.put(city.getId(), city);
+            if (old != null) {
+                unlink(old, changes);
+            }
+            link(city, changes);
+        }
+        publish(changes, cities.size());
+    }
+
+    /**
+     * Remove the city with the given id, returning false if there is none
+     */
+    public synchronized boolean remove(int cityId) {
+        City old = citiesById.remove(cityId);
+        if (old == null) {
+            return false;
+        }
+        Changes changes = new Changes();
+        unlink(old, changes);
+        publish(changes, 1);
+        return true;
+    }
+
+    /**
+     * The current state of the index; it does not change when the index does
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public int maxK() {
+        return maxK;
+    }
+
+    private void link(City city, Changes changes) {
+        int country = groupOfCode.computeIfAbsent(city.getCountryCode(), code -> {
+            byCountry.add(new TreeSet<>(RANKING));
+            changes.newCodes = true;
+            return byCountry.size() - 1;
+        });
+        byCountry.get(country).add(city);
+        int continent = continentOf(country);
+        if (continent >= 0) {
+            byContinent.get(continent).add(city);
+        }
+        changes.add(country, continent, city);
+    }
+
+    private void unlink(City city, Changes changes) {
+        int country = groupOfCode.get(city.getCountryCode());
+        byCountry.get(country).remove(city);
+        int continent = continentOf(country);
+        if (continent >= 0) {
+            byContinent.get(continent).remove(city);
+        }
+        changes.add(country, continent, city);
+    }
+
+    private int continentOf(int country) {
+        return country < countries.size() ? countries.continentId(country) : -1;
+    }
+
+    // Rebuild the tops of the touched groups and swap in a new snapshot
+    private void publish(Changes changes, int updates) {
+        Snapshot current = snapshot;
+        City[][] countryTops = current.countryTops;
+        if (!changes.countries.isEmpty()) {
+            countryTops = Arrays.copyOf(countryTops, byCountry.size());
+            for (int country : changes.countries) {
+                countryTops[country] = top(byCountry.get(country));
+            }
+        }
+        City[][] continentTops = current.continentTops;
+        if (!changes.continents.isEmpty()) {
+            continentTops = continentTops.clone();
+            for (int continent : changes.continents) {
+                continentTops[continent] = top(byContinent.get(continent));
+            }
+        }
+        version += updates;
+        snapshot = new Snapshot(version, citiesById.size(), maxK,
+                changes.newCodes ? Map.copyOf(groupOfCode) : current.groupOfCode,
+                countryTops, continentTops, countries.continents());
+    }
+
+    private City[] top(NavigableSet<City> group) {
+        City[] top = new City[Math.min(maxK, group.size())];
+        Iterator<City> it = group.iterator();
+        for (int i = 0; i < top.length; i++) {
+            top[i] = it.next();
+        }
+        return top;
+    }
+
+    // Groups whose published top-K an update may have moved
+    private final class Changes {
+        final Set<Integer> countries = new LinkedHashSet<>();
+        final Set<Integer> continents = new LinkedHashSet<>();
+        boolean newCodes;
+
+        void add(int country, int continent, City city) {
+            Snapshot current = snapshot;
+            if (country >= current.countryTops.length || reaches(current.countryTops[country], city)) {
+                countries.add(country);
+            }
+            if (continent >= 0 && reaches(current.continentTops[continent], city)) {
+                continents.add(continent);
+            }
+        }
+
+        // A city ranked below a full published top leaves it as it is, whether it came or went.
+        // Within a batch a group's top only moves once a change reaches it, and from then on
+        // the group is rebuilt anyway.
+        private boolean reaches(City[] top, City city) {
+            return top.length < maxK || RANKING.compare(city, top[maxK - 1]) <= 0;
+        }
+    }
+
+    /**
+     * An immutable state of the index
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final int size;
+        private final int maxK;
+        private final Map<String, Integer> groupOfCode;
+        private final City[][] countryTops;
+        private final City[][] continentTops;
+        private final List<String> continents;
+
+        private Snapshot(long version, int size, int maxK, Map<String, Integer> groupOfCode, City[][] countryTops,
+                City[][] continentTops, List<String> continents) {
+            this.version = version;
+            this.size = size;
+            this.maxK = maxK;
+            this.groupOfCode = groupOfCode;
+            this.countryTops = countryTops;
+            this.continentTops = continentTops;
+            this.continents = continents;
+        }
+
+        /**
+         * Number of updates applied before this snapshot was taken
+         */
+        public long version() {
+            return version;
+        }
+
+        /**
+         * Number of cities in the index
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Up to k most populated cities of a country, most populated first; k is at most maxK
+         */
+        public List<City> topByCountry(String countryCode, int k) {
+            Integer country = groupOfCode.get(countryCode);
+            return head(country == null ? NONE : countryTops[country], k);
+        }
+
+        /**
+         * Up to k most populated cities of a continent, most populated first; k is at most maxK
+         */
+        public List<City> topByContinent(String continent, int k) {
+            int id = continents.indexOf(continent);
+            return head(id < 0 ? NONE : continentTops[id], k);
+        }
+
+        private List<City> head(City[] top, int k) {
+            if (k < 0 || k > maxK) {
+                throw new IllegalArgumentException("k must be between 0 and " + maxK + ": " + k);
+            }
+            return Collections.unmodifiableList(Arrays.asList(top).subList(0, Math.min(k, top.length)));
+        }
+    }
+}
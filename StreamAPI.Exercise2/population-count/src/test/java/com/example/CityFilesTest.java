@@ -0,0 +1,139 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.Model.City;
+import com.example.Model.CityTable;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for CityFiles class.
+ */
+public class CityFilesTest {
+
+    private static final List<Country> COUNTRIES = List.of(
+        new Country("US", "United States", "North America", 331000000, 9833517, 21000000, 0),
+        new Country("CA", "Canada", "North America", 38000000, 9984670, 1600000, 0),
+        new Country("IN", "India", "Asia", 1380000000, 3287263, 2875000, 0),
+        new Country("JP", "Japan", "Asia", 125000000, 377975, 5000000, 0)
+    );
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Test for checking that header, comments, blank lines, CRLF and commas in names are handled
+     */
+    @Test
+    public void shouldParseCityLines() throws IOException {
+        // Setup: a hand-written dump without a final line break
+        Path csv = dir.resolve("cities.csv");
+        Files.writeString(csv, "id,name,countryCode,population\r\n"
+            + "# a comment\n"
+            + "1,New York,US,8419600\r\n"
+            + "\n"
+            + "2,Washington, D.C.,US,689545\n"
+            + "3,São Paulo,BR,12325232", StandardCharsets.UTF_8);
+
+        // Action: stream the cities
+        List<City> cities;
+        try (Stream<City> stream = CityFiles.cities(csv)) {
+            cities = stream.toList();
+        }
+
+        // Assertion: three cities, every field intact
+        assertEquals(3, cities.size());
+        assertEquals("City [id=1, name=New York, population=8419600, countryCode=US]", cities.get(0).toString());
+        assertEquals("Washington, D.C.", cities.get(1).getName());
+        assertEquals("São Paulo", cities.get(2).getName());
+        assertEquals("BR", cities.get(2).getCountryCode());
+        assertEquals(12325232, cities.get(2).getPopulation());
+    }
+
+    /**
+     * Test for checking that a split parallel stream and the table loader read the same cities
+     * as the list they were written from, and that aggregating while reading gives the same maxima
+     */
+    @Test
+    public void shouldReadLargeFileInParallel() throws IOException {
+        // Setup: enough random cities for the file to be split
+        Random random = new Random(13);
+        List<City> written = new ArrayList<>();
+        for (int i = 0; i < 600_000; i++) {
+            String code = random.nextInt(100) == 0 ? "XX" : COUNTRIES.get(random.nextInt(COUNTRIES.size())).getCode();
+            written.add(new City(i, "City " + i + (i % 7 == 0 ? ", é" : ""), code, random.nextInt(1000)));
+        }
+        Path csv = dir.resolve("cities.csv");
+        CityFiles.writeCsv(written.iterator(), csv);
+
+        // Action: read it back in parallel, aggregate in parallel, and load it into columns
+        List<City> read;
+        PopulationAggregator.Maxima maxima;
+        try (Stream<City> stream = CityFiles.cities(csv)) {
+            assertNotNull(stream.spliterator().trySplit());
+        }
+        try (Stream<City> stream = CityFiles.cities(csv)) {
+            read = stream.parallel().toList();
+        }
+        try (Stream<City> stream = CityFiles.cities(csv)) {
+            maxima = stream.parallel().collect(PopulationAggregator.toMaxima(CountryTable.of(COUNTRIES)));
+        }
+        CityTable table = CityFiles.loadTable(csv);
+
+        // Assertion: same cities in the same order, same maxima as the in-memory query
+        assertEquals(written.size(), read.size());
+        assertEquals(written.size(), table.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertEquals(written.get(i).toString(), read.get(i).toString());
+            assertEquals(written.get(i).toString(), table.city(i).toString());
+        }
+        PopulationAggregator.Maxima expected = PopulationAggregator.highestPopulated(written, COUNTRIES);
+        assertEquals(List.copyOf(expected.byCountry().keySet()), List.copyOf(maxima.byCountry().keySet()));
+        expected.byCountry().forEach((code, city) -> assertEquals(city.toString(), maxima.byCountry().get(code).toString()));
+        expected.byContinent().forEach((continent, city) ->
+            assertEquals(city.toString(), maxima.byContinent().get(continent).toString()));
+    }
+
+    /**
+     * Test for checking that a malformed line is reported and country dumps are read
+     */
+    @Test
+    public void shouldRejectMalformedLinesAndLoadCountries() throws IOException {
+        // Setup: a city line without a population, a country with a comma in its name
+        Path cities = dir.resolve("cities.csv");
+        Files.writeString(cities, "1,New York,US,8419600\n2,Nowhere,US\n");
+        Path countries = dir.resolve("countries.csv");
+        Files.writeString(countries, "code,name,continent,population,surfaceArea,gnp,capital\n"
+            + "KR,Korea, Republic of,Asia,51780000,100210.0,1630000.5,2331\n");
+
+        // Action: read both
+        List<Country> loaded = CityFiles.loadCountries(countries);
+
+        // Assertion: the city line fails with its offset, the country is complete
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> {
+            try (Stream<City> stream = CityFiles.cities(cities)) {
+                stream.toList();
+            }
+        });
+        assertEquals("Malformed city line at byte 22", error.getMessage());
+        assertEquals(1, loaded.size());
+        assertEquals("Korea, Republic of", loaded.get(0).getName());
+        assertEquals("Asia", loaded.get(0).getContinent());
+        assertEquals(2331, loaded.get(0).getCapital());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.Model.City;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for CountryJoin class.
+ */
+public class CountryJoinTest {
+
+    private static final CountryTable COUNTRIES = CountryTable.of(List.of(
+        new Country("US", "United States", "North America", 331000000, 9833517, 21000000, 0),
+        new Country("CA", "Canada", "North America", 38000000, 9984670, 1600000, 0),
+        new Country("IN", "India", "Asia", 1380000000, 3287263, 2875000, 0),
+        new Country("JP", "Japan", "Asia", 125000000, 377975, 5000000, 0)
+    ));
+
+    private static final List<City> CITIES = List.of(
+        new City(1, "New York", "US", 8419600),
+        new City(2, "Toronto", "CA", 2930000),
+        new City(3, "Mumbai", "IN", 12478447),
+        new City(4, "Atlantis", "XX", 99999999),
+        new City(5, "Tokyo", "JP", 13960000)
+    );
+
+    /**
+     * Test for checking that each orphan policy does what it says
+     */
+    @Test
+    public void shouldApplyOrphanPolicy() {
+        // Setup: one join per policy
+        CountryJoin skip = new CountryJoin(COUNTRIES, CountryJoin.Orphans.SKIP);
+        CountryJoin keep = new CountryJoin(COUNTRIES, CountryJoin.Orphans.KEEP);
+        CountryJoin fail = new CountryJoin(COUNTRIES, CountryJoin.Orphans.FAIL);
+
+        // Action: join the cities
+        List<CountryJoin.Joined> skipped = skip.join(CITIES.stream()).toList();
+        List<CountryJoin.Joined> kept = keep.join(CITIES.stream()).toList();
+
+        // Assertion: the orphan is dropped, kept without a country, or rejected
+        assertEquals(List.of("US", "CA", "IN", "JP"), skipped.stream().map(joined -> joined.country().getCode()).toList());
+        assertEquals(5, kept.size());
+        assertTrue(kept.get(3).isOrphan());
+        assertEquals("North America", kept.get(1).country().getContinent());
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> fail.join(CITIES.stream()).toList());
+        assertTrue(error.getMessage().startsWith("Unknown country code: XX"));
+    }
+
+    /**
+     * Test for checking grouping by a continent, a region and a GNP band
+     */
+    @Test
+    public void shouldGroupByCountryAttributes() {
+        // Setup: a join keeping orphans, and regions that the model does not have
+        CountryJoin join = new CountryJoin(COUNTRIES, CountryJoin.Orphans.KEEP);
+        Map<String, String> regions = Map.of("US", "Americas", "CA", "Americas", "IN", "South Asia", "JP", "East Asia");
+
+        // Action: count cities and sum populations per group
+        CountryJoin.Grouped<String, Long> byContinent = join.groupBy(CITIES.stream(), Country::getContinent, Collectors.counting());
+        CountryJoin.Grouped<String, Long> byRegion = join.groupBy(CITIES.stream(),
+            country -> regions.get(country.getCode()), Collectors.counting());
+        CountryJoin.Grouped<Integer, Integer> byGnpBand = join.groupBy(CITIES.stream(),
+            country -> (int) (country.getGnp() / 5_000_000), Collectors.summingInt(City::getPopulation));
+
+        // Assertion: groups in country table order, orphans reported apart
+        assertEquals(Map.of("North America", 2L, "Asia", 2L), byContinent.groups());
+        assertEquals(List.of("North America", "Asia"), List.copyOf(byContinent.groups().keySet()));
+        assertEquals(1L, byContinent.orphans());
+        assertEquals(Map.of("Americas", 2L, "South Asia", 1L, "East Asia", 1L), byRegion.groups());
+        assertEquals(Map.of(4, 8419600, 0, 2930000 + 12478447, 1, 13960000), byGnpBand.groups());
+        assertEquals(99999999, byGnpBand.orphans());
+    }
+
+    /**
+     * Test for checking that a parallel grouping keeps the first of equally populated cities
+     */
+    @Test
+    public void shouldGroupInParallelLikeSequentially() {
+        // Setup: many cities with few distinct populations, so ties are common
+        Random random = new Random(5);
+        List<City> cities = new ArrayList<>();
+        String[] codes = { "US", "CA", "IN", "JP", "XX" };
+        for (int i = 0; i < 100_000; i++) {
+            cities.add(new City(i, "City " + i, codes[random.nextInt(codes.length)], random.nextInt(10)));
+        }
+        CountryJoin join = new CountryJoin(COUNTRIES, CountryJoin.Orphans.SKIP);
+
+        // Action: highest populated city per continent, both ways
+        CountryJoin.Grouped<String, Optional<City>> sequential = join.groupBy(cities.stream(), Country::getContinent,
+            Collectors.maxBy(Comparator.comparingInt(City::getPopulation)));
+        CountryJoin.Grouped<String, Optional<City>> parallel = join.groupBy(cities.parallelStream(), Country::getContinent,
+            Collectors.maxBy(Comparator.comparingInt(City::getPopulation)));
+
+        // Assertion: the same cities, and no orphan result under SKIP
+        assertEquals(sequential.groups(), parallel.groups());
+        assertTrue(parallel.orphans().isEmpty());
+    }
+
+    /**
+     * Test for checking that the dense array collectors agree with groupingBy and maxBy
+     */
+    @Test
+    public void shouldCollectMaximaIntoArrays() {
+        // Setup: many cities with few distinct populations, so ties are common
+        Random random = new Random(7);
+        List<City> cities = new ArrayList<>();
+        String[] codes = { "US", "CA", "IN", "JP", "XX" };
+        for (int i = 0; i < 100_000; i++) {
+            cities.add(new City(i, "City " + i, codes[random.nextInt(codes.length)], random.nextInt(10)));
+        }
+        CountryJoin join = new CountryJoin(COUNTRIES, CountryJoin.Orphans.SKIP);
+        Map<String, Optional<City>> expectedByContinent = join.groupBy(cities.stream(), Country::getContinent,
+            Collectors.maxBy(Comparator.comparingInt(City::getPopulation))).groups();
+
+        // Action: collect into arrays indexed by country id and continent id
+        City[] byCountry = cities.parallelStream().collect(join.highestPopulatedByCountry());
+        City[] byContinent = cities.parallelStream().collect(join.highestPopulatedByContinent());
+
+        // Assertion: one element per id, holding the first of the most populated cities
+        assertEquals(COUNTRIES.size(), byCountry.length);
+        for (int id = 0; id < COUNTRIES.size(); id++) {
+            String code = COUNTRIES.code(id);
+            City expected = cities.stream().filter(city -> city.getCountryCode().equals(code))
+                .max(Comparator.comparingInt(City::getPopulation)).orElseThrow();
+            assertEquals(expected, byCountry[id]);
+        }
+        assertEquals(COUNTRIES.continents().size(), byContinent.length);
+        for (int id = 0; id < byContinent.length; id++) {
+            assertEquals(expectedByContinent.get(COUNTRIES.continents().get(id)).orElseThrow(), byContinent[id]);
+        }
+    }
+}
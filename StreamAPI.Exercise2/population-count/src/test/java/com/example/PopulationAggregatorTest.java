@@ -0,0 +1,110 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.Model.City;
+import com.example.Model.CityTable;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit test for PopulationAggregator class.
+ */
+public class PopulationAggregatorTest {
+
+    private static final List<Country> COUNTRIES = List.of(
+        new Country("US", "United States", "North America", 331000000, 9833517, 21000000, 0),
+        new Country("CA", "Canada", "North America", 38000000, 9984670, 1600000, 0),
+        new Country("IN", "India", "Asia", 1380000000, 3287263, 2875000, 0),
+        new Country("JP", "Japan", "Asia", 125000000, 377975, 5000000, 0)
+    );
+
+    /**
+     * Test for checking both maxima on the sample data, orphan cities included
+     */
+    @Test
+    public void shouldFindHighestPopulatedCityByCountryAndContinent() {
+        // Setup: sample data with a city of an unknown country
+        List<City> cities = List.of(
+            new City(1, "New York", "US", 8419600),
+            new City(2, "Los Angeles", "US", 3980400),
+            new City(3, "Mumbai", "IN", 12478447),
+            new City(4, "Delhi", "IN", 11034555),
+            new City(5, "Atlantis", "XX", 99999999)
+        );
+
+        // Action: aggregate in one pass
+        PopulationAggregator.Maxima maxima = PopulationAggregator.highestPopulated(cities, COUNTRIES);
+
+        // Assertion: countries in country list order, orphans last, and no continent for orphans
+        assertEquals(List.of("US", "IN", "XX"), List.copyOf(maxima.byCountry().keySet()));
+        assertEquals("New York", maxima.byCountry().get("US").getName());
+        assertEquals("Atlantis", maxima.byCountry().get("XX").getName());
+        assertEquals(Map.of("North America", cities.get(0), "Asia", cities.get(2)), maxima.byContinent());
+    }
+
+    /**
+     * Test for checking that the columnar query finds the same cities as the object one
+     */
+    @Test
+    public void shouldFindSameCitiesInColumns() {
+        // Setup: random cities, some of an unknown country, stored both ways
+        Random random = new Random(7);
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            String code = random.nextInt(100) == 0 ? "XX" : COUNTRIES.get(random.nextInt(COUNTRIES.size())).getCode();
+            cities.add(new City(i, "City " + i + " \u00e9", code, random.nextInt(1000)));
+        }
+        CityTable cityTable = CityTable.of(cities);
+        CountryTable countryTable = CountryTable.of(COUNTRIES);
+
+        // Action: aggregate objects and columns
+        PopulationAggregator.Maxima expected = PopulationAggregator.highestPopulated(cities, COUNTRIES);
+        PopulationAggregator.Maxima actual = PopulationAggregator.highestPopulated(cityTable, countryTable);
+
+        // Assertion: same keys in the same order, same cities rebuilt from the columns
+        assertEquals(List.copyOf(expected.byCountry().keySet()), List.copyOf(actual.byCountry().keySet()));
+        assertEquals(List.copyOf(expected.byContinent().keySet()), List.copyOf(actual.byContinent().keySet()));
+        expected.byCountry().forEach((code, city) -> assertEquals(city.toString(), actual.byCountry().get(code).toString()));
+        expected.byContinent().forEach((continent, city) ->
+            assertEquals(city.toString(), actual.byContinent().get(continent).toString()));
+        assertEquals(List.of("North America", "Asia"), countryTable.continents());
+        assertEquals("Japan", countryTable.country(countryTable.idOf("JP")).getName());
+        assertEquals(-1, countryTable.idOf("XX"));
+    }
+
+    /**
+     * Test for checking that a large parallel run agrees with the collectors, ties included
+     */
+    @Test
+    public void shouldMatchCollectors() {
+        // Setup: many cities with few distinct populations, so ties are common
+        Random random = new Random(42);
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < 300_000; i++) {
+            String code = COUNTRIES.get(random.nextInt(COUNTRIES.size())).getCode();
+            cities.add(new City(i, "City " + i, code, random.nextInt(1000)));
+        }
+
+        // Action: aggregate in one pass and with the collectors
+        PopulationAggregator.Maxima maxima = PopulationAggregator.highestPopulated(cities, COUNTRIES);
+        Map<String, Optional<City>> byCountry = PopulationCount.highestPopulatedCityByCountry(cities);
+        Map<String, Optional<City>> byContinent = PopulationCount.highestPopulatedCityByContinent(cities, COUNTRIES);
+
+        // Assertion: the very same city objects, so ties went to the first city as well
+        assertEquals(byCountry.keySet(), maxima.byCountry().keySet());
+        byCountry.forEach((code, city) -> assertSame(city.orElseThrow(), maxima.byCountry().get(code)));
+        assertEquals(byContinent.keySet(), maxima.byContinent().keySet());
+        byContinent.forEach((continent, city) -> assertSame(city.orElseThrow(), maxima.byContinent().get(continent)));
+        assertEquals(Map.of(), PopulationAggregator.highestPopulated(List.of(), COUNTRIES).byCountry());
+    }
+}
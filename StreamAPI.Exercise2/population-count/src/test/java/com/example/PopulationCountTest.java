@@ -3,13 +3,17 @@ package com.example;
 import org.junit.jupiter.api.Test;
 
 import com.example.Model.City;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Comparator;
 import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -48,6 +52,57 @@ public class PopulationCountTest {
         });
     }
 
+    /**
+     * Test for checking that cities of unknown countries no longer break the continent query
+     */
+    @Test
+    public void shouldSkipOrphanCitiesByContinent() {
+        // Setup: sample data with a city of an unknown country
+        List<Country> countries = List.of(
+            new Country("US", "United States", "North America", 331000000, 9833517, 21000000, 0),
+            new Country("IN", "India", "Asia", 1380000000, 3287263, 2875000, 0)
+        );
+        List<City> cities = List.of(
+            new City(1, "New York", "US", 8419600),
+            new City(3, "Mumbai", "IN", 12478447),
+            new City(5, "Atlantis", "XX", 99999999)
+        );
+
+        // Action: find highest populated city by continent
+        Map<String, Optional<City>> byContinent = PopulationCount.highestPopulatedCityByContinent(cities, countries);
+
+        // Assertion: the orphan belongs to no continent
+        assertEquals(Map.of("North America", Optional.of(cities.get(0)), "Asia", Optional.of(cities.get(1))), byContinent);
+    }
+
+    /**
+     * Test for checking the queries that answer without a map of Optionals
+     */
+    @Test
+    public void shouldFindHighestPopulatedWithoutOptionals() {
+        // Setup: sample data with a continent that has no city
+        List<Country> countries = List.of(
+            new Country("US", "United States", "North America", 331000000, 9833517, 21000000, 0),
+            new Country("IN", "India", "Asia", 1380000000, 3287263, 2875000, 0),
+            new Country("FR", "France", "Europe", 67000000, 551695, 2600000, 0)
+        );
+        List<City> cities = List.of(
+            new City(1, "New York", "US", 8419600),
+            new City(2, "Los Angeles", "US", 3980400),
+            new City(3, "Mumbai", "IN", 12478447),
+            new City(4, "Delhi", "IN", 11034555)
+        );
+        CountryJoin join = new CountryJoin(CountryTable.of(countries), CountryJoin.Orphans.SKIP);
+
+        // Action: highest populated city by continent id, highest population by country
+        City[] byContinent = PopulationCount.highestPopulatedCityByContinentId(cities, join);
+
+        // Assertion: continents in country table order, null and empty where there is no city
+        assertArrayEquals(new City[] { cities.get(0), cities.get(2), null }, byContinent);
+        assertEquals(OptionalInt.of(12478447), PopulationCount.highestPopulation(cities, "IN"));
+        assertEquals(OptionalInt.empty(), PopulationCount.highestPopulation(cities, "FR"));
+    }
+
     /**
      * Basic test example
      */
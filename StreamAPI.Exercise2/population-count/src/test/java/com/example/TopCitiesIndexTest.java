@@ -0,0 +1,137 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.Model.City;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for TopCitiesIndex class.
+ */
+public class TopCitiesIndexTest {
+
+    private static final CountryTable COUNTRIES = CountryTable.of(List.of(
+        new Country("US", "United States", "North America", 331000000, 9833517, 21000000, 0),
+        new Country("CA", "Canada", "North America", 38000000, 9984670, 1600000, 0),
+        new Country("IN", "India", "Asia", 1380000000, 3287263, 2875000, 0),
+        new Country("JP", "Japan", "Asia", 125000000, 377975, 5000000, 0)
+    ));
+
+    /**
+     * Test for checking that additions, revisions and removals move the top cities
+     */
+    @Test
+    public void shouldKeepTopCitiesCurrent() {
+        // Setup: a few cities, one of an unknown country
+        TopCitiesIndex index = new TopCitiesIndex(COUNTRIES, 2);
+        index.putAll(List.of(
+            new City(1, "New York", "US", 8419600),
+            new City(2, "Los Angeles", "US", 3980400),
+            new City(3, "Chicago", "US", 2716000),
+            new City(4, "Toronto", "CA", 2930000),
+            new City(5, "Atlantis", "XX", 99999999)
+        ));
+        TopCitiesIndex.Snapshot before = index.snapshot();
+
+        // Action: Chicago grows past Los Angeles, New York moves to Canada, Toronto is removed
+        index.put(new City(3, "Chicago", "US", 4000000));
+        index.put(new City(1, "New York", "CA", 8419600));
+        boolean removed = index.remove(4);
+        TopCitiesIndex.Snapshot after = index.snapshot();
+
+        // Assertion: the old snapshot is untouched, the new one reflects every update
+        assertEquals(List.of("New York", "Los Angeles"), names(before.topByCountry("US", 2)));
+        assertEquals(List.of("New York", "Los Angeles"), names(before.topByContinent("North America", 2)));
+        assertTrue(removed);
+        assertFalse(index.remove(4));
+        assertEquals(List.of("Chicago", "Los Angeles"), names(after.topByCountry("US", 2)));
+        assertEquals(List.of("New York"), names(after.topByCountry("CA", 2)));
+        assertEquals(List.of("New York", "Chicago"), names(after.topByContinent("North America", 2)));
+        assertEquals(List.of("Atlantis"), names(after.topByCountry("XX", 1)));
+        assertEquals(List.of(), after.topByContinent("Asia", 2));
+        assertEquals(List.of(), after.topByCountry("ZZ", 2));
+        assertEquals(4, after.size());
+        assertEquals(8, after.version());
+    }
+
+    /**
+     * Test for checking the top cities against a full sort after many random updates
+     */
+    @Test
+    public void shouldMatchRecomputedTopCities() {
+        // Setup: an index and the same cities in a plain map
+        TopCitiesIndex index = new TopCitiesIndex(COUNTRIES, 5);
+        Map<Integer, City> cities = new HashMap<>();
+        Random random = new Random(21);
+        String[] codes = { "US", "CA", "IN", "JP", "XX" };
+
+        // Action: add, revise and remove at random, sometimes in batches
+        for (int round = 0; round < 20_000; round++) {
+            int id = random.nextInt(300);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                cities.remove(id);
+            } else if (random.nextInt(10) == 0) {
+                List<City> batch = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    batch.add(new City(random.nextInt(300), "City", codes[random.nextInt(codes.length)], random.nextInt(50)));
+                }
+                index.putAll(batch);
+                batch.forEach(city -> cities.put(city.getId(), city));
+            } else {
+                City city = new City(id, "City", codes[random.nextInt(codes.length)], random.nextInt(50));
+                index.put(city);
+                cities.put(id, city);
+            }
+        }
+
+        // Assertion: every group's top matches the sorted cities of that group
+        TopCitiesIndex.Snapshot snapshot = index.snapshot();
+        Comparator<City> ranking = Comparator.comparingInt(City::getPopulation).reversed().thenComparingInt(City::getId);
+        for (String code : codes) {
+            List<Integer> expected = cities.values().stream()
+                .filter(city -> city.getCountryCode().equals(code))
+                .sorted(ranking).limit(5).map(City::getId).toList();
+            assertEquals(expected, snapshot.topByCountry(code, 5).stream().map(City::getId).toList());
+        }
+        for (String continent : COUNTRIES.continents()) {
+            List<Integer> expected = cities.values().stream()
+                .filter(city -> COUNTRIES.idOf(city.getCountryCode()) >= 0
+                    && COUNTRIES.continents().get(COUNTRIES.continentId(COUNTRIES.idOf(city.getCountryCode()))).equals(continent))
+                .sorted(ranking).limit(5).map(City::getId).toList();
+            assertEquals(expected, snapshot.topByContinent(continent, 5).stream().map(City::getId).toList());
+        }
+        assertEquals(cities.size(), snapshot.size());
+    }
+
+    /**
+     * Test for checking that k is limited to the maxK the index was built for
+     */
+    @Test
+    public void shouldRejectKBeyondMaxK() {
+        // Setup: an index for the top 3
+        TopCitiesIndex index = new TopCitiesIndex(COUNTRIES, 3);
+
+        // Action and Assertion: k outside 0..3 is rejected
+        assertThrows(IllegalArgumentException.class, () -> index.snapshot().topByCountry("US", 4));
+        assertThrows(IllegalArgumentException.class, () -> index.snapshot().topByContinent("Asia", -1));
+        assertThrows(IllegalArgumentException.class, () -> new TopCitiesIndex(COUNTRIES, 0));
+    }
+
+    private static List<String> names(List<City> cities) {
+        return cities.stream().map(City::getName).toList();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: the JMH command line with tracking defaults. Unless the
+ * command line says otherwise, every run adds the GC profiler, which reports allocation
+ * rates per operation, and writes its results as JSON to target/jmh-result.json, so runs
+ * can be compared with each other to catch regressions.
+ */
+public final class BenchmarkMain {
+
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private BenchmarkMain() { }
+
+    public static void main(String[] args) throws Exception {
+        List<String> given = Arrays.asList(args);
+        List<String> all = new ArrayList<>();
+        if (!given.contains("-prof")) {
+            all.addAll(List.of("-prof", "gc"));
+        }
+        if (!given.contains("-rf")) {
+            all.addAll(List.of("-rf", "json"));
+        }
+        if (!given.contains("-rff")) {
+            Files.createDirectories(Path.of(DEFAULT_RESULT_FILE).getParent());
+            all.addAll(List.of("-rff", DEFAULT_RESULT_FILE));
+        }
+        all.addAll(given);
+        org.openjdk.jmh.Main.main(all.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.example.Model.City;
+import com.example.Model.CityTable;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Reading a city dump: highest populated cities aggregated while the file streams in, through
+ * {@link CityFiles} sequentially and in parallel versus {@code Files.lines} with
+ * {@code String.split}, and loading the whole file into a {@link CityTable}. The heap is kept
+ * small on purpose; the streaming runs never hold more than their read buffers and maxima.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class CityFilesBenchmark {
+
+    private static final String[] CONTINENTS = {
+        "Africa", "Antarctica", "Asia", "Europe", "North America", "Oceania", "South America" };
+
+    @Param({"1000000", "10000000"})
+    private int cityCount;
+
+    private Path csv;
+    private CountryTable countries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Country> countryList = new ArrayList<>();
+        for (int i = 0; i < 240; i++) {
+            String code = "" + (char) ('A' + i / 26) + (char) ('A' + i % 26);
+            countryList.add(new Country(code, "Country " + code, CONTINENTS[i % CONTINENTS.length], 0, 0, 0, 0));
+        }
+        countries = CountryTable.of(countryList);
+
+        SplittableRandom random = new SplittableRandom(42);
+        csv = Files.createTempFile("cities", ".csv");
+        CityFiles.writeCsv(new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < cityCount;
+            }
+
+            @Override
+            public City next() {
+                String code = countryList.get(random.nextInt(countryList.size())).getCode();
+                City city = new City(next, "City " + next, code, random.nextInt(40_000_000));
+                next++;
+                return city;
+            }
+        }, csv);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+    }
+
+    @Benchmark
+    public PopulationAggregator.Maxima linesAndSplit() throws IOException {
+        try (Stream<String> lines = Files.lines(csv)) {
+            return lines.skip(1)
+                    .map(line -> {
+                        String[] fields = line.split(",");
+                        return new City(Integer.parseInt(fields[0]), fields[1], fields[2], Integer.parseInt(fields[3]));
+                    })
+                    .collect(PopulationAggregator.toMaxima(countries));
+        }
+    }
+
+    @Benchmark
+    public PopulationAggregator.Maxima streamSequential() throws IOException {
+        try (Stream<City> cities = CityFiles.cities(csv)) {
+            return cities.collect(PopulationAggregator.toMaxima(countries));
+        }
+    }
+
+    @Benchmark
+    public PopulationAggregator.Maxima streamParallel() throws IOException {
+        try (Stream<City> cities = CityFiles.cities(csv)) {
+            return cities.parallel().collect(PopulationAggregator.toMaxima(countries));
+        }
+    }
+
+    @Benchmark
+    public PopulationAggregator.Maxima loadTable() throws IOException {
+        return PopulationAggregator.highestPopulated(CityFiles.loadTable(csv), countries);
+    }
+}
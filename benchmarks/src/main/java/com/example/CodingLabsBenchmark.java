@@ -0,0 +1,68 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import CodingLabs.Palindrome;
+import CodingLabs.SubArray;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The CodingLabs exercises over growing inputs: SubArray.sub copying the middle half of an
+ * array, against Arrays.copyOfRange, and Palindrome.pal on a palindrome, which has to compare
+ * every character pair, and on a string that differs at its centre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodingLabsBenchmark {
+
+    @Param({"16", "1024", "1048576"})
+    private int length;
+
+    private final SubArray subArray = new SubArray();
+    private final Palindrome palindrome = new Palindrome();
+    private int[] numbers;
+    private String palindromic;
+    private String almostPalindromic;
+
+    @Setup
+    public void setUp() {
+        numbers = new int[length];
+        for (int i = 0; i < length; i++) {
+            numbers[i] = i;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length / 2; i++) {
+            chars[i] = (char) ('a' + i % 26);
+            chars[length - 1 - i] = chars[i];
+        }
+        palindromic = new String(chars);
+        chars[length / 2 - 1] = '#';
+        almostPalindromic = new String(chars);
+    }
+
+    @Benchmark
+    public int[] sub() {
+        return subArray.sub(numbers, length / 4, length - length / 4);
+    }
+
+    @Benchmark
+    public int[] copyOfRange() {
+        return Arrays.copyOfRange(numbers, length / 4, length - length / 4);
+    }
+
+    @Benchmark
+    public boolean palindrome() {
+        return palindrome.pal(palindromic);
+    }
+
+    @Benchmark
+    public boolean notPalindrome() {
+        return palindrome.pal(almostPalindromic);
+    }
+}
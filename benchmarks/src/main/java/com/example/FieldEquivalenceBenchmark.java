@@ -0,0 +1,124 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ReflectionAPI.FieldComparator;
+import ReflectionAPI.FieldEquivalence;
+
+import com.example.Model.City;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The reflective FieldEquivalence and FieldComparator on the City model, which has neither
+ * equals nor hashCode nor a natural order, against handwritten versions: looking up a copy
+ * of every city in a HashMap keyed by city, and sorting the cities by country code and
+ * population in a stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldEquivalenceBenchmark {
+
+    private static final FieldEquivalence<City> EQUIVALENCE = FieldEquivalence.of(City.class);
+    private static final Comparator<City> REFLECTIVE_ORDER = FieldComparator.of(City.class, "countryCode", "population");
+    private static final Comparator<City> COMPARING_ORDER = Comparator.comparing(City::getCountryCode)
+            .thenComparingInt(City::getPopulation);
+    private static final Comparator<City> HANDWRITTEN_ORDER = (a, b) -> {
+        int c = a.getCountryCode().compareTo(b.getCountryCode());
+        return c != 0 ? c : Integer.compare(a.getPopulation(), b.getPopulation());
+    };
+
+    @Param({"10000"})
+    private int cities;
+
+    private List<City> all;
+    private List<City> copies;
+    private Map<CityKey, Integer> handwrittenMap;
+    private Map<FieldEquivalence.Key<City>, Integer> reflectiveMap;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        all = new ArrayList<>();
+        copies = new ArrayList<>();
+        handwrittenMap = new HashMap<>();
+        reflectiveMap = new HashMap<>();
+        for (int i = 0; i < cities; i++) {
+            String code = "C" + random.nextInt(200);
+            int population = random.nextInt(10_000_000);
+            City city = new City(i, "City " + i, code, population);
+            all.add(city);
+            copies.add(new City(i, new String("City " + i), new String(code), population));
+            handwrittenMap.put(new CityKey(city), i);
+            reflectiveMap.put(EQUIVALENCE.wrap(city), i);
+        }
+    }
+
+    @Benchmark
+    public long hashMapHandwritten() {
+        long sum = 0;
+        for (City city : copies) {
+            sum += handwrittenMap.get(new CityKey(city));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long hashMapReflective() {
+        long sum = 0;
+        for (City city : copies) {
+            sum += reflectiveMap.get(EQUIVALENCE.wrap(city));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<City> sortedHandwritten() {
+        return all.stream().sorted(HANDWRITTEN_ORDER).toList();
+    }
+
+    @Benchmark
+    public List<City> sortedComparing() {
+        return all.stream().sorted(COMPARING_ORDER).toList();
+    }
+
+    @Benchmark
+    public List<City> sortedReflective() {
+        return all.stream().sorted(REFLECTIVE_ORDER).toList();
+    }
+
+    // The equals and hashCode City would have if it were written by hand
+    private static final class CityKey {
+        private final City city;
+
+        CityKey(City city) {
+            this.city = city;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CityKey other && city.getId() == other.city.getId()
+                    && city.getPopulation() == other.city.getPopulation()
+                    && city.getName().equals(other.city.getName())
+                    && city.getCountryCode().equals(other.city.getCountryCode());
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 31 + city.getId();
+            hash = 31 * hash + city.getName().hashCode();
+            hash = 31 * hash + city.getPopulation();
+            return 31 * hash + city.getCountryCode().hashCode();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Lookups against an H2-backed phone book with and without a CachingPhoneBookRepository, and
+ * committed write throughput. With more threads, writes share batches and transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class H2PhoneBookRepositoryBenchmark {
+
+    @Param({"100000"})
+    private int entries;
+
+    @Param({"0", "100000"})
+    private int cacheCapacity;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private H2PhoneBookRepository database;
+    private PhoneBookRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = H2PhoneBookRepository.open("jdbc:h2:mem:" + UUID.randomUUID());
+        repository = cacheCapacity == 0 ? database : new CachingPhoneBookRepository(database, cacheCapacity);
+        Map<String, String> initial = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            initial.put("Name " + i, "0" + (100_000_000 + i));
+        }
+        repository.addEntries(initial);
+        next.set(entries);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        database.close();
+    }
+
+    @Benchmark
+    public Object findPhoneNumberByName() {
+        return repository.findPhoneNumberByName("Name " + ThreadLocalRandom.current().nextInt(entries));
+    }
+
+    @Benchmark
+    public Object findNameByPhoneNumber() {
+        return repository.findNameByPhoneNumber("0" + (100_000_000 + ThreadLocalRandom.current().nextInt(entries)));
+    }
+
+    @Benchmark
+    public void addEntry() {
+        int i = next.getAndIncrement();
+        repository.addEntry("Name " + i, "0" + (100_000_000 + i));
+    }
+}
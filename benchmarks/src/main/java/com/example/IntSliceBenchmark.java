@@ -0,0 +1,74 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import CodingLabs.IntSlice;
+import CodingLabs.SubArray;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Taking a window of {@code window} elements out of an array: copied element by element, as
+ * SubArray.sub used to, copied in bulk by SubArray.sub, or viewed as an IntSlice, which costs
+ * the same for every window size. The sum benchmarks add up the window once it is taken, from
+ * a copy and straight from the slice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntSliceBenchmark {
+
+    @Param({"8", "1024", "1048576", "10000000"})
+    private int window;
+
+    private final SubArray subArray = new SubArray();
+    private int[] numbers;
+    private int start;
+
+    @Setup
+    public void setUp() {
+        numbers = new int[window + 16];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = i;
+        }
+        start = 7;  // Not aligned, like most windows
+    }
+
+    @Benchmark
+    public int[] loopCopy() {
+        int[] copy = new int[window];
+        for (int i = start; i < start + window; i++) {
+            copy[i - start] = numbers[i];
+        }
+        return copy;
+    }
+
+    @Benchmark
+    public int[] sub() {
+        return subArray.sub(numbers, start, start + window);
+    }
+
+    @Benchmark
+    public IntSlice slice() {
+        return subArray.slice(numbers, start, start + window);
+    }
+
+    @Benchmark
+    public IntSlice nestedSlice() {
+        return IntSlice.of(numbers).slice(start, start + window).slice(1, window - 1);
+    }
+
+    @Benchmark
+    public long copySum() {
+        return Arrays.stream(subArray.sub(numbers, start, start + window)).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long sliceSum() {
+        return subArray.slice(numbers, start, start + window).stream().asLongStream().sum();
+    }
+}
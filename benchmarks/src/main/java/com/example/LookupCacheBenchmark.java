@@ -0,0 +1,70 @@
+package com.example;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Hit rate and throughput of the two LookupCache eviction policies on a skewed workload:
+ * keys follow a Zipf-like distribution over a key space ten times the cache size, and every
+ * so often a scan of one-off keys runs through. Hits and misses are reported as secondary
+ * results next to the operation time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupCacheBenchmark {
+
+    private static final int KEYS = 1 << 20;  // Power of two
+
+    @Param({"10000"})
+    private int capacity;
+
+    @Param({"LRU", "TINY_LFU"})
+    private LookupCache.Eviction eviction;
+
+    private LookupCache<Integer, Integer> cache;
+    private int[] keys;
+    private int next;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long hits;
+        public long misses;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new LookupCache<>(capacity, eviction);
+        keys = new int[KEYS];
+        SplittableRandom random = new SplittableRandom(42);
+        int keySpace = capacity * 10;
+        int scanKey = keySpace;
+        for (int i = 0; i < KEYS; i++) {
+            if (i % 50_000 < 5_000) {
+                keys[i] = scanKey++;  // One-off scan
+            } else {
+                // Zipf-like with exponent 1: rank = keySpace^u
+                keys[i] = (int) Math.pow(keySpace, random.nextDouble()) - 1;
+            }
+        }
+    }
+
+    @Benchmark
+    public Integer getOrLoad(Counters counters) {
+        int key = keys[next++ & (KEYS - 1)];
+        Integer value = cache.get(key);
+        if (value != null) {
+            counters.hits++;
+            return value;
+        }
+        counters.misses++;
+        cache.put(key, key, 0);
+        return key;
+    }
+}
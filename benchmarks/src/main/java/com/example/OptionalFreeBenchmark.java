@@ -0,0 +1,101 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.example.Model.City;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The Optional-returning APIs against the ones that answer without a wrapper: 1000 phone
+ * book lookups by name, about a tenth of them misses, through findPhoneNumberByName,
+ * findPhoneNumberByNameOrElse and ifPhoneNumberFound, and the highest populated city per
+ * continent of 1M cities as a map of Optionals and as a City[] indexed by continent id.
+ * The gc.alloc.rate.norm lines show the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionalFreeBenchmark {
+
+    private static final int ENTRIES = 100_000;
+    private static final int LOOKUPS = 1000;
+    private static final int CITIES = 1_000_000;
+    private static final String[] CONTINENTS = {
+        "Africa", "Antarctica", "Asia", "Europe", "North America", "Oceania", "South America" };
+
+    private PhoneBook phoneBook;
+    private String[] names;
+    private List<City> cities;
+    private CountryJoin countryJoin;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            entries.put("Name " + i, "0" + (100_000_000 + i));
+        }
+        phoneBook = new PhoneBook(entries);
+        names = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            names[i] = "Name " + random.nextInt(ENTRIES + ENTRIES / 10);  // Names past the last entry miss
+        }
+
+        List<Country> countries = new ArrayList<>();
+        for (int i = 0; i < 240; i++) {
+            String code = "" + (char) ('A' + i / 26) + (char) ('A' + i % 26);
+            countries.add(new Country(code, "Country " + code, CONTINENTS[i % CONTINENTS.length], 0, 0, 0, 0));
+        }
+        cities = new ArrayList<>(CITIES);
+        for (int i = 0; i < CITIES; i++) {
+            String code = countries.get(random.nextInt(countries.size())).getCode();
+            cities.add(new City(i, "City " + (i & 1023), code, random.nextInt(40_000_000)));
+        }
+        countryJoin = new CountryJoin(CountryTable.of(countries), CountryJoin.Orphans.SKIP);
+    }
+
+    @Benchmark
+    public void lookupOptional(Blackhole blackhole) {
+        for (String name : names) {
+            Optional<String> phoneNumber = phoneBook.findPhoneNumberByName(name);
+            blackhole.consume(phoneNumber);
+        }
+    }
+
+    @Benchmark
+    public void lookupOrElse(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(phoneBook.findPhoneNumberByNameOrElse(name, null));
+        }
+    }
+
+    @Benchmark
+    public void lookupIfFound(Blackhole blackhole) {
+        for (String name : names) {
+            phoneBook.ifPhoneNumberFound(name, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Optional<City>> continentOptionals() {
+        return PopulationCount.highestPopulatedCityByContinent(cities, countryJoin);
+    }
+
+    @Benchmark
+    public City[] continentArray() {
+        return PopulationCount.highestPopulatedCityByContinentId(cities, countryJoin);
+    }
+}
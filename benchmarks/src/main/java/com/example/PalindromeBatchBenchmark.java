@@ -0,0 +1,83 @@
+package com.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import CodingLabs.Palindrome;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Screening a batch of identifiers for palindromes, in strings checked per second: one
+ * string at a time with Palindrome.pal, the batch with palAll, the Latin-1 bytes of the
+ * identifiers with palAllBytes, and with the normalized check that ignores case and
+ * punctuation. Half of the identifiers are palindromes, which have to be read in full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PalindromeBatchBenchmark {
+
+    private static final int BATCH = 1 << 18;
+
+    @Param({"8", "64"})
+    private int length;
+
+    private final Palindrome palindrome = new Palindrome();
+    private String[] identifiers;
+    private byte[][] bytes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        identifiers = new String[BATCH];
+        bytes = new byte[BATCH][];
+        for (int i = 0; i < BATCH; i++) {
+            char[] chars = new char[length];
+            for (int j = 0; j < length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(4));
+            }
+            if (i % 2 == 0) {
+                for (int j = 0; j < length / 2; j++) {
+                    chars[length - 1 - j] = chars[j];
+                }
+            }
+            identifiers[i] = new String(chars);
+            bytes[i] = identifiers[i].getBytes(StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int oneByOne() {
+        int count = 0;
+        for (String identifier : identifiers) {
+            if (palindrome.pal(identifier)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean[] batch() {
+        return palindrome.palAll(identifiers);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean[] batchBytes() {
+        return palindrome.palAllBytes(bytes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean[] batchNormalized() {
+        return palindrome.palAllNormalized(identifiers);
+    }
+}
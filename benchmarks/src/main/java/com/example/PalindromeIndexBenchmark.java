@@ -0,0 +1,109 @@
+package com.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import CodingLabs.PalindromeIndex;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * PalindromeIndex over a text of {@code length} characters made of palindromes of up to 8K
+ * characters: building the index from a String and from an off-heap buffer, as a mapped file
+ * would be, and checking 1024 of those palindromes with the index or by comparing characters
+ * from both ends of each range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PalindromeIndexBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"65536", "16777216"})
+    private int length;
+
+    private String text;
+    private ByteBuffer offHeapText;
+    private PalindromeIndex index;
+    private int[] starts;
+    private int[] ends;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        // Random words each followed by their reverse, so the text is made of palindromes of
+        // up to 8K characters; the queries ask for some of them
+        char[] chars = new char[length];
+        starts = new int[QUERIES];
+        ends = new int[QUERIES];
+        int filled = 0;
+        int queries = 0;
+        while (filled < length) {
+            int half = Math.min(1 + random.nextInt(4096), (length - filled) / 2);
+            for (int i = 0; i < half; i++) {
+                chars[filled + i] = (char) ('a' + random.nextInt(3));
+                chars[filled + 2 * half - 1 - i] = chars[filled + i];
+            }
+            if (queries < QUERIES && half > 0) {
+                starts[queries] = filled;
+                ends[queries] = filled + 2 * half;
+                queries++;
+            }
+            filled += Math.max(2 * half, 1);
+        }
+        for (int q = queries; q < QUERIES; q++) {  // A short text has fewer palindromes to ask for
+            starts[q] = starts[q % queries];
+            ends[q] = ends[q % queries];
+        }
+        text = new String(chars);
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        offHeapText = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        index = PalindromeIndex.of(text);
+    }
+
+    @Benchmark
+    public PalindromeIndex build() {
+        return PalindromeIndex.of(text);
+    }
+
+    @Benchmark
+    public PalindromeIndex buildOffHeap() {
+        return PalindromeIndex.of(offHeapText);
+    }
+
+    @Benchmark
+    public int indexedQueries() {
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            if (index.isPalindrome(starts[q], ends[q])) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int comparedQueries() {
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            boolean palindrome = true;
+            for (int i = starts[q], j = ends[q] - 1; i < j; i++, j--) {
+                if (text.charAt(i) != text.charAt(j)) {
+                    palindrome = false;
+                    break;
+                }
+            }
+            if (palindrome) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
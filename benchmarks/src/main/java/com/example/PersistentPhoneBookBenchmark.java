@@ -0,0 +1,113 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Durable write throughput of a persistent phone book, and the time to reopen one from a
+ * snapshot plus a log tail. Run the writes with more threads to see group commit at work:
+ * the number of fsyncs stays flat while the throughput grows.
+ */
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PersistentPhoneBookBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Writes {
+        private final AtomicInteger next = new AtomicInteger();
+        private Path directory;
+        private PersistentPhoneBook phoneBook;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("phonebook-bench");
+            phoneBook = PersistentPhoneBook.open(directory);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            phoneBook.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recovery {
+        @Param({"1000000"})
+        private int snapshotEntries;
+
+        @Param({"100000"})
+        private int logEntries;
+
+        private Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("phonebook-bench");
+            try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(directory)) {
+                Map<String, String> entries = new HashMap<>();
+                for (int i = 0; i < snapshotEntries; i++) {
+                    entries.put("Name " + i, "0" + (100_000_000 + i));
+                }
+                phoneBook.addEntries(entries);
+                phoneBook.checkpoint();
+                entries.clear();
+                for (int i = 0; i < logEntries; i++) {
+                    entries.put("Name " + (snapshotEntries + i), "0" + (200_000_000 + i));
+                    if (entries.size() == 1000) {  // Same log records, fewer fsyncs to set up
+                        phoneBook.addEntries(entries);
+                        entries.clear();
+                    }
+                }
+                phoneBook.addEntries(entries);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void addEntry(Writes state) {
+        int i = state.next.getAndIncrement();
+        state.phoneBook.addEntry("Name " + i, "0" + (100_000_000 + i));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public PhoneBook recover(Recovery state) throws IOException {
+        try (PersistentPhoneBook phoneBook = PersistentPhoneBook.open(state.directory)) {
+            return phoneBook;
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Resolving a batch of names and phone numbers in a single call, compared with looping over
+ * the single-key Optional lookups. About a tenth of the keys miss. Run with {@code -prof gc}
+ * to see the allocation rate of each variant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PhoneBookBatchLookupBenchmark {
+
+    @Param({"1000000"})
+    private int entries;
+
+    @Param({"1000", "100000"})
+    private int batchSize;
+
+    private PhoneBook phoneBook;
+    private String[] names;
+    private String[] phoneNumbers;
+    private String[] results;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, String> initial = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            initial.put("Name " + i, "0" + (100_000_000 + i));
+        }
+        phoneBook = new PhoneBook(initial);
+
+        SplittableRandom random = new SplittableRandom(42);
+        names = new String[batchSize];
+        phoneNumbers = new String[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            int key = random.nextInt(entries + entries / 10);  // Keys past the last entry miss
+            names[i] = "Name " + key;
+            phoneNumbers[i] = "0" + (100_000_000 + key);
+        }
+        results = new String[batchSize];
+    }
+
+    @Benchmark
+    public String[] namesOptionalLoop() {
+        for (int i = 0; i < names.length; i++) {
+            results[i] = phoneBook.findPhoneNumberByName(names[i]).orElse(null);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public String[] namesBatch() {
+        phoneBook.findPhoneNumbersByNames(names, results);
+        return results;
+    }
+
+    @Benchmark
+    public String[] numbersOptionalLoop() {
+        for (int i = 0; i < phoneNumbers.length; i++) {
+            results[i] = phoneBook.findNameByPhoneNumber(phoneNumbers[i]).orElse(null);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public String[] numbersBatch() {
+        phoneBook.findNamesByPhoneNumbers(phoneNumbers, results);
+        return results;
+    }
+}
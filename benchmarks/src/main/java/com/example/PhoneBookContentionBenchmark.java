@@ -0,0 +1,71 @@
+package com.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Lookup throughput of a shared PhoneBook under contention.
+ *
+ * Run with an increasing thread count ({@code -t 1}, {@code -t 2}, ...) to see read throughput
+ * scale with cores. The {@code mixed} group adds a writer that keeps moving names between numbers,
+ * so readers are measured while the striped locks are taken. The small phone book fits in
+ * the CPU caches, the large one does not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhoneBookContentionBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int entries;
+
+    private PhoneBook phoneBook;
+    private String[] names;
+    private String[] numbers;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> data = new HashMap<>();
+        names = new String[entries];
+        numbers = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            names[i] = "Name " + i;
+            numbers[i] = "0" + (100_000_000 + i);
+            data.put(names[i], numbers[i]);
+        }
+        phoneBook = new PhoneBook(data);
+    }
+
+    @Benchmark
+    public Optional<String> findPhoneNumberByName() {
+        return phoneBook.findPhoneNumberByName(names[ThreadLocalRandom.current().nextInt(entries)]);
+    }
+
+    @Benchmark
+    public Optional<String> findNameByPhoneNumber() {
+        return phoneBook.findNameByPhoneNumber(numbers[ThreadLocalRandom.current().nextInt(entries)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Optional<String> mixedRead() {
+        return phoneBook.findNameByPhoneNumber(numbers[ThreadLocalRandom.current().nextInt(entries)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        phoneBook.addEntry(names[random.nextInt(entries)], numbers[random.nextInt(entries)]);
+    }
+}
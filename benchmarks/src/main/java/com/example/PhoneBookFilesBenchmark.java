@@ -0,0 +1,76 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Time to populate an empty phone book from a CSV file versus from a binary snapshot of the
+ * same entries, and to write that snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PhoneBookFilesBenchmark {
+
+    @Param({"1000000"})
+    private int entries;
+
+    private Path directory;
+    private Path csv;
+    private Path snapshot;
+    private PhoneBook loaded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("phonebook-bench");
+        csv = directory.resolve("phonebook.csv");
+        snapshot = directory.resolve("phonebook.snapshot");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < entries; i++) {
+            content.append("Name ").append(i).append(',').append("0").append(100_000_000 + i).append('\n');
+        }
+        Files.writeString(csv, content);
+        loaded = new PhoneBook(Map.of());
+        PhoneBookFiles.loadCsv(loaded, csv);
+        PhoneBookFiles.writeSnapshot(loaded, snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public PhoneBook loadCsv() throws IOException {
+        PhoneBook phoneBook = new PhoneBook(Map.of());
+        PhoneBookFiles.loadCsv(phoneBook, csv);
+        return phoneBook;
+    }
+
+    @Benchmark
+    public PhoneBook loadSnapshot() throws IOException {
+        PhoneBook phoneBook = new PhoneBook(Map.of());
+        PhoneBookFiles.loadSnapshot(phoneBook, snapshot);
+        return phoneBook;
+    }
+
+    @Benchmark
+    public void writeSnapshot() {
+        try {
+            PhoneBookFiles.writeSnapshot(loaded, snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
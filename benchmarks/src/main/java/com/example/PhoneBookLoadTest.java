@@ -0,0 +1,163 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop HTTP load test for {@link PhoneBookServer}: a fixed number of clients, each on
+ * its own virtual thread, send requests back to back and record every latency. After a warmup
+ * the run reports requests per second and the p50, p99 and p99.9 latency.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.PhoneBookLoadTest [clients] [seconds] [baseUrl]
+ * </pre>
+ *
+ * Without a base URL, a server with {@code ENTRIES} generated entries is started in-process.
+ * The request mix is 80% lookups by name, 15% lookups by number and 5% adds.
+ */
+public class PhoneBookLoadTest {
+
+    private static final int ENTRIES = 100_000;
+    private static final int WARMUP_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        PhoneBookServer server = null;
+        String baseUrl;
+        if (args.length > 2) {
+            baseUrl = args[2];
+        } else {
+            Map<String, String> entries = new HashMap<>();
+            for (int i = 0; i < ENTRIES; i++) {
+                entries.put(name(i), number(i));
+            }
+            server = new PhoneBookServer(new PhoneBook(entries)).start(0);
+            baseUrl = "http://localhost:" + server.port();
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        try {
+            System.out.printf("Warming up %d clients against %s for %d s%n", clients, baseUrl, WARMUP_SECONDS);
+            run(client, baseUrl, clients, WARMUP_SECONDS);
+            System.out.printf("Measuring for %d s%n", seconds);
+            Result result = run(client, baseUrl, clients, seconds);
+            result.print();
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    private static Result run(HttpClient client, String baseUrl, int clients, int seconds) throws Exception {
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger nextAdd = new AtomicInteger(ENTRIES);
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        List<Future<long[]>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = nextRequest(baseUrl, nextAdd);
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400 && response.statusCode() != 404) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - sent;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long[][] perClient = new long[workers.size()][];
+        for (int i = 0; i < perClient.length; i++) {
+            perClient[i] = workers.get(i).get();
+        }
+        long[] all = Arrays.stream(perClient).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(all);
+        return new Result(all, elapsed, errors.get());
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, AtomicInteger nextAdd) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int dice = random.nextInt(100);
+        int i = random.nextInt(ENTRIES);
+        if (dice < 80) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/entries?name=" + encode(name(i)))).GET().build();
+        }
+        if (dice < 95) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/entries?phoneNumber=" + encode(number(i)))).GET().build();
+        }
+        int added = nextAdd.getAndIncrement();
+        String body = "{\"name\":\"" + name(added) + "\",\"phoneNumber\":\"" + number(added) + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/entries"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String name(int i) {
+        return "Name " + i;
+    }
+
+    private static String number(int i) {
+        return "0" + (100_000_000 + i);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private record Result(long[] sortedLatencies, long elapsedNanos, int errors) {
+
+        long percentile(double p) {
+            int index = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)];
+        }
+
+        void print() {
+            if (sortedLatencies.length == 0) {
+                System.out.println("No requests completed");
+                return;
+            }
+            System.out.printf("requests  %d (%d errors)%n", sortedLatencies.length, errors);
+            System.out.printf("rps       %.0f%n", sortedLatencies.length * 1e9 / elapsedNanos);
+            System.out.printf("p50       %.3f ms%n", percentile(0.50) / 1e6);
+            System.out.printf("p99       %.3f ms%n", percentile(0.99) / 1e6);
+            System.out.printf("p999      %.3f ms%n", percentile(0.999) / 1e6);
+            System.out.printf("max       %.3f ms%n", sortedLatencies[sortedLatencies.length - 1] / 1e6);
+        }
+    }
+}
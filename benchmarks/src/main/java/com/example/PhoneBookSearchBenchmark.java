@@ -0,0 +1,69 @@
+package com.example;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Latency of type-ahead name search: the top 10 prefix matches and fuzzy matches within one
+ * or two typos, against a phone book of random names.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhoneBookSearchBenchmark {
+
+    @Param({"1000000"})
+    private int entries;
+
+    private PhoneBook phoneBook;
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        Map<String, String> data = new HashMap<>();
+        names = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            names[i] = randomWord(random) + " " + randomWord(random);
+            data.put(names[i], "0" + (100_000_000 + i));
+        }
+        phoneBook = new PhoneBook(data);
+    }
+
+    @Benchmark
+    public List<String> prefixTop10() {
+        String name = names[ThreadLocalRandom.current().nextInt(entries)];
+        return phoneBook.findNamesByPrefix(name.substring(0, 3), 10).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> fuzzyOneEdit() {
+        String name = names[ThreadLocalRandom.current().nextInt(entries)];
+        return phoneBook.findNamesSimilarTo(name, 1, 10).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> fuzzyTwoEdits() {
+        String name = names[ThreadLocalRandom.current().nextInt(entries)];
+        return phoneBook.findNamesSimilarTo(name, 2, 10).collect(Collectors.toList());
+    }
+
+    private static String randomWord(SplittableRandom random) {
+        char[] word = new char[4 + random.nextInt(6)];
+        word[0] = (char) ('A' + random.nextInt(26));
+        for (int i = 1; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.example.Model.City;
+import com.example.Model.CityTable;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Highest populated city per country and per continent over a large city list: the two
+ * groupingBy/maxBy collector passes of PopulationCount versus the single parallel pass of
+ * PopulationAggregator, over City objects and over CityTable columns, and Task 2 alone with
+ * a per-run country HashMap versus a prebuilt CountryJoin. 100M cities need a
+ * machine with about 10 GB of free memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx10g")
+public class PopulationCountBenchmark {
+
+    private static final String[] CONTINENTS = {
+        "Africa", "Antarctica", "Asia", "Europe", "North America", "Oceania", "South America" };
+
+    @Param({"10000000", "100000000"})
+    private int cityCount;
+
+    private List<Country> countries;
+    private List<City> cities;
+    private CityTable cityTable;
+    private CountryTable countryTable;
+    private CountryJoin countryJoin;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        countries = new ArrayList<>();
+        for (int i = 0; i < 240; i++) {
+            String code = "" + (char) ('A' + i / 26) + (char) ('A' + i % 26);
+            countries.add(new Country(code, "Country " + code, CONTINENTS[i % CONTINENTS.length], 0, 0, 0, 0));
+        }
+        String[] names = new String[1024];  // Shared, the benchmark is not about String memory
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "City " + i;
+        }
+        cities = new ArrayList<>(cityCount);
+        for (int i = 0; i < cityCount; i++) {
+            String code = countries.get(random.nextInt(countries.size())).getCode();
+            cities.add(new City(i, names[i & (names.length - 1)], code, random.nextInt(40_000_000)));
+        }
+        cityTable = CityTable.of(cities);
+        countryTable = CountryTable.of(countries);
+        countryJoin = new CountryJoin(countryTable, CountryJoin.Orphans.SKIP);
+    }
+
+    @Benchmark
+    public Object collectors() {
+        Map<String, Optional<City>> byCountry = PopulationCount.highestPopulatedCityByCountry(cities);
+        Map<String, Optional<City>> byContinent = PopulationCount.highestPopulatedCityByContinent(cities, countries);
+        return new Object[] { byCountry, byContinent };
+    }
+
+    // Task 2 as it was: a country map built per run and a continent lookup per city
+    @Benchmark
+    public Map<String, Optional<City>> continentHashMap() {
+        Map<String, Country> countryMap = countries.stream()
+                .collect(Collectors.toMap(Country::getCode, country -> country));
+        return cities.stream()
+                .collect(Collectors.groupingBy(
+                        city -> countryMap.get(city.getCountryCode()).getContinent(),
+                        Collectors.maxBy(Comparator.comparingInt(City::getPopulation))));
+    }
+
+    @Benchmark
+    public Map<String, Optional<City>> continentJoin() {
+        return PopulationCount.highestPopulatedCityByContinent(cities, countryJoin);
+    }
+
+    @Benchmark
+    public PopulationAggregator.Maxima singlePass() {
+        return PopulationAggregator.highestPopulated(cities, countries);
+    }
+
+    @Benchmark
+    public PopulationAggregator.Maxima singlePassColumns() {
+        return PopulationAggregator.highestPopulated(cityTable, countryTable);
+    }
+}
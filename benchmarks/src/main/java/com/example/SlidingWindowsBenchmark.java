@@ -0,0 +1,107 @@
+package com.example;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import CodingLabs.SlidingWindows;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * SlidingWindows over 4M elements, against scanning every window again. The sums and maxima
+ * of long elements run on a heap array and on a direct (off-heap) buffer; the double ones
+ * show the cost of compensated sums and Double.compare ordering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlidingWindowsBenchmark {
+
+    private static final int LENGTH = 1 << 22;
+
+    @Param({"16", "256"})
+    private int window;
+
+    private long[] longs;
+    private LongBuffer offHeapLongs;
+    private double[] doubles;
+    private DoubleBuffer offHeapDoubles;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        longs = new long[LENGTH];
+        doubles = new double[LENGTH];
+        offHeapLongs = ByteBuffer.allocateDirect(LENGTH * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        offHeapDoubles = ByteBuffer.allocateDirect(LENGTH * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        for (int i = 0; i < LENGTH; i++) {
+            longs[i] = random.nextInt(1_000_000);
+            doubles[i] = random.nextGaussian();
+        }
+        offHeapLongs.put(longs).flip();
+        offHeapDoubles.put(doubles).flip();
+    }
+
+    @Benchmark
+    public long[] rescanSums() {
+        long[] out = new long[LENGTH - window + 1];
+        for (int i = 0; i < out.length; i++) {
+            long sum = 0;
+            for (int j = i; j < i + window; j++) {
+                sum += longs[j];
+            }
+            out[i] = sum;
+        }
+        return out;
+    }
+
+    @Benchmark
+    public long[] sums() {
+        return SlidingWindows.of(longs, window).sums();
+    }
+
+    @Benchmark
+    public long[] offHeapSums() {
+        return SlidingWindows.of(offHeapLongs, window).sums();
+    }
+
+    @Benchmark
+    public long[] rescanMaxima() {
+        long[] out = new long[LENGTH - window + 1];
+        for (int i = 0; i < out.length; i++) {
+            long max = Long.MIN_VALUE;
+            for (int j = i; j < i + window; j++) {
+                max = Math.max(max, longs[j]);
+            }
+            out[i] = max;
+        }
+        return out;
+    }
+
+    @Benchmark
+    public long[] maxima() {
+        return SlidingWindows.of(longs, window).maxima();
+    }
+
+    @Benchmark
+    public long[] offHeapMaxima() {
+        return SlidingWindows.of(offHeapLongs, window).maxima();
+    }
+
+    @Benchmark
+    public double[] doubleMeans() {
+        return SlidingWindows.of(doubles, window).means();
+    }
+
+    @Benchmark
+    public double[] offHeapDoubleMinima() {
+        return SlidingWindows.of(offHeapDoubles, window).minima();
+    }
+}
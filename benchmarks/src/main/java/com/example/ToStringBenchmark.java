@@ -0,0 +1,128 @@
+package com.example;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import ReflectionAPI.ObjectPrinter;
+import ReflectionAPI.ToString;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Every version of the reflective ReflectionAPI.ToString and the cached ObjectPrinter on the
+ * same object, next to a handwritten toString as the baseline. The array field grows with
+ * {@code arrayLength}; the array printing versions only show its first 15 elements. The
+ * streaming versions write into a builder, writer or buffer kept across calls, and should show
+ * (close to) no allocation under the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToStringBenchmark {
+
+    @Param({"4", "64"})
+    private int arrayLength;
+
+    private Sample sample;
+    private final StringBuilder builder = new StringBuilder(1024);
+    private final CharArrayWriter writer = new CharArrayWriter(1024);
+    private final CharBuffer buffer = CharBuffer.allocate(1024);
+
+    @Setup
+    public void setUp() {
+        String[] tags = new String[arrayLength];
+        for (int i = 0; i < arrayLength; i++) {
+            tags[i] = "tag" + i;
+        }
+        sample = new Sample("Hans", 25, 1.5, tags);
+    }
+
+    @Benchmark
+    public String handwritten() {
+        return sample.toString();
+    }
+
+    @Benchmark
+    public String className() {
+        return ToString.toString(sample);
+    }
+
+    @Benchmark
+    public String fields() {
+        return ToString.toStringWithFields(sample);
+    }
+
+    @Benchmark
+    public String fieldTypes() {
+        return ToString.toStringWithFieldTypes(sample);
+    }
+
+    @Benchmark
+    public String values() {
+        return ToString.toStringWithValues(sample);
+    }
+
+    @Benchmark
+    public String arrayHandling() {
+        return ToString.toStringWithArrayHandling(sample);
+    }
+
+    @Benchmark
+    public String cached() {
+        return ObjectPrinter.toString(sample);
+    }
+
+    @Benchmark
+    public int appendToBuilder() {
+        builder.setLength(0);
+        ObjectPrinter.appendTo(sample, builder);
+        return builder.length();
+    }
+
+    @Benchmark
+    public int writeToWriter() throws IOException {
+        writer.reset();
+        ObjectPrinter.writeTo(sample, writer);
+        return writer.size();
+    }
+
+    @Benchmark
+    public int writeToCharBuffer() {
+        buffer.clear();
+        ObjectPrinter.writeTo(sample, buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public String deep() {
+        return ToString.toStringDeep(sample, 4, 4096);
+    }
+
+    public static class Sample {
+        private static final int VERSION = 1;  // Static, so never printed
+
+        private final String name;
+        private final int age;
+        private final double score;
+        private final String[] tags;
+
+        Sample(String name, int age, double score, String[] tags) {
+            this.name = name;
+            this.age = age;
+            this.score = score;
+            this.tags = tags;
+        }
+
+        @Override
+        public String toString() {
+            return "Sample{name=" + name + ", age=" + age + ", score=" + score + ", tags="
+                    + Arrays.toString(tags.length > 15 ? Arrays.copyOf(tags, 15) : tags) + "}";
+        }
+    }
+}
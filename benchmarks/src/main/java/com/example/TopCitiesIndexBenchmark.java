@@ -0,0 +1,95 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.example.Model.City;
+import com.example.Model.Country;
+import com.example.Model.CountryTable;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Top 10 cities of a continent over a live city set: revising one city in a
+ * {@link TopCitiesIndex} and querying its snapshot, versus sorting the continent's cities
+ * from scratch. The group benchmark runs readers next to a writer to show that snapshot
+ * queries do not wait for updates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TopCitiesIndexBenchmark {
+
+    private static final String[] CONTINENTS = {
+        "Africa", "Antarctica", "Asia", "Europe", "North America", "Oceania", "South America" };
+    private static final int K = 10;
+
+    @Param({"1000000"})
+    private int cityCount;
+
+    private List<City> cities;
+    private List<String> codes;
+    private Set<String> asia;
+    private TopCitiesIndex index;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Country> countries = new ArrayList<>();
+        for (int i = 0; i < 240; i++) {
+            String code = "" + (char) ('A' + i / 26) + (char) ('A' + i % 26);
+            countries.add(new Country(code, "Country " + code, CONTINENTS[i % CONTINENTS.length], 0, 0, 0, 0));
+        }
+        codes = countries.stream().map(Country::getCode).toList();
+        asia = countries.stream().filter(country -> country.getContinent().equals("Asia"))
+                .map(Country::getCode).collect(Collectors.toSet());
+        index = new TopCitiesIndex(CountryTable.of(countries), K);
+        cities = new ArrayList<>(cityCount);
+        for (int i = 0; i < cityCount; i++) {
+            cities.add(new City(i, "City " + i, codes.get(random.nextInt(codes.size())), random.nextInt(40_000_000)));
+        }
+        index.putAll(cities);
+    }
+
+    @Benchmark
+    public void update() {
+        int id = random.nextInt(cityCount);
+        index.put(new City(id, "City " + id, codes.get(random.nextInt(codes.size())), random.nextInt(40_000_000)));
+    }
+
+    @Benchmark
+    public List<City> query() {
+        return index.snapshot().topByContinent("Asia", K);
+    }
+
+    @Benchmark
+    public List<City> recompute() {
+        return cities.stream()
+                .filter(city -> asia.contains(city.getCountryCode()))
+                .sorted(Comparator.comparingInt(City::getPopulation).reversed().thenComparingInt(City::getId))
+                .limit(K)
+                .toList();
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(3)
+    public List<City> concurrentQuery() {
+        return index.snapshot().topByContinent("Asia", K);
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(1)
+    public void concurrentUpdate() {
+        update();
+    }
+}